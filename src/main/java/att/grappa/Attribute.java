@@ -11,6 +11,7 @@
 package att.grappa;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.Hashtable;
 import java.util.List;
@@ -85,7 +86,7 @@
  * @author <a href="mailto:john@research.att.com">John Mocenigo</a>, <a href="http://www.research.att.com">Research @
  *         AT&T Labs</a>
  */
-public final class Attribute extends java.util.Observable implements AttributeHandler, GrappaConstants
+public final class Attribute implements AttributeHandler, GrappaConstants
 {
     // the custom attribute handler
     private static AttributeHandler specialHandler = null;
@@ -122,6 +123,26 @@ public static AttributeHandler setAttributeHandler(AttributeHandler newHandler)
     // the hash value of the attribute name
     private int nameHash;
 
+    // the numeric key of the attribute name
+    private int key;
+
+    // off-heap storage for numeric values, the record holding the converted value (or -1) and the stored string value
+    // (or -1)
+    private OffHeapAttributeStore store = null;
+
+    private int record = -1;
+
+    private int text = -1;
+
+    // whether the value changed since listeners were last told
+    private boolean changed = false;
+
+    // the listener, when there is just one, else null
+    private AttributeListener listener = null;
+
+    // the listeners, when there are more than one, else null; replaced rather than changed, so it can be walked freely
+    private AttributeListener[] listeners = null;
+
     /**
      * Constructs a new attribute from a name / value pair.
      *
@@ -134,7 +155,6 @@ public static AttributeHandler setAttributeHandler(AttributeHandler newHandler)
      */
     public Attribute(int elemType, String attrName, Object attrValue)
     {
-        super();
         if (attrName == null) {
             throw new IllegalArgumentException("the name of an Attribute pair cannot be null");
         }
@@ -142,6 +162,7 @@ public Attribute(int elemType, String attrName, Object attrValue)
         this.elementType = elemType;
         this.name = attrName;
         this.nameHash = this.name.hashCode();
+        this.key = AttributeKey.getKey(attrName);
         setValue(attrValue);
     }
 
@@ -189,18 +210,42 @@ public final String getName()
     }
 
     /**
-     * Get the value of this attribute.
+     * Get the value of this attribute. A value set from a string is only converted to its typed form on the first call,
+     * so values that are never asked for are never converted.
      *
      * @return the value of the attribute.
      */
     public final Object getValue()
     {
+        if (this.record >= 0) {
+            return loadValue(this.record);
+        }
+        if (this.value == null && this.text >= 0) {
+            return convertText();
+        }
         if (this.value == null && this.stringValue != null) {
-            this.value = convertStringValue(this.elementType, this.name, this.stringValue, this.attributeType);
+            this.value = share(convertStringValue(this.elementType, this.name, this.stringValue, this.attributeType));
         }
         return this.value;
     }
 
+    /**
+     * Get the value of this attribute in whichever form is at hand, without converting it: the typed value if it has
+     * already been computed, otherwise the string value.
+     *
+     * @return the value of the attribute, possibly as a String.
+     */
+    final Object getAvailableValue()
+    {
+        if (this.text >= 0) {
+            return this.store.getString(this.text);
+        }
+        if (this.record >= 0) {
+            return loadValue(this.record);
+        }
+        return (this.value != null) ? this.value : this.stringValue;
+    }
+
     /**
      * Get the value of this attribute converted to a String.
      *
@@ -216,15 +261,38 @@ public final String getStringValue()
                 this.stringValue = null;
                 break;
         }
+        if (this.text >= 0) {
+            return this.store.getString(this.text);
+        }
+        if (this.stringValue == null && this.record >= 0) {
+            // keep the string generated from a stored value, so it is only generated once; readers on other threads
+            // may be doing the same, so allocate under the lock of the store, once
+            synchronized (this.store) {
+                if (this.text >= 0) {
+                    return this.store.getString(this.text);
+                } else if (this.stringValue == null) {
+                    Object stored = loadValue(this.record);
+                    String generated = convertValue(this.elementType, this.name, stored, this.attributeType);
+                    int handle = this.store.putString(generated);
+                    if (handle < 0) {
+                        this.stringValue = generated;
+                    } else {
+                        this.text = handle;
+                    }
+                    return generated;
+                }
+            }
+        }
         if (this.stringValue == null && this.value != null) {
-            this.stringValue = convertValue(this.elementType, this.name, this.value, this.attributeType);
+            Object converted = convertValue(this.elementType, this.name, this.value, this.attributeType);
+            this.stringValue = (String) share(converted);
         }
         return this.stringValue;
     }
 
     /**
-     * Set the value of the attribute. If the value is different than the current value, the Observable changed
-     * indicator is set.
+     * Set the value of the attribute. If the value is different than the current value, the changed indicator is set,
+     * so that the next call to <code>notifyListeners</code> tells the listeners.
      *
      * @param attrValue the new attribute value.
      * @return the old attribute value.
@@ -234,6 +302,8 @@ public final Object setValue(Object attrValue)
         boolean changed = false;
         boolean isString = false;
         Object oldValue = null;
+        // bring an off-heap value back while it is compared and replaced
+        loadRecords();
         if (attrValue != null && attrValue instanceof String) {
             isString = true;
             oldValue = getStringValue();
@@ -246,27 +316,183 @@ public final Object setValue(Object attrValue)
         if (attrValue != null) {
             if (isString) {
                 if (changed = (this.stringValue == null || !attrValue.equals(this.stringValue))) {
-                    this.stringValue = (String) attrValue;
+                    this.stringValue = (String) share(attrValue);
                     this.value = null;
                 }
             } else {
                 if (changed = (this.value == null || !attrValue.equals(this.value))) {
-                    this.value = copyValue(this.elementType, this.name, attrValue, this.attributeType);
+                    this.value = share(copyValue(this.elementType, this.name, attrValue, this.attributeType));
                     this.stringValue = null;
                 }
             }
         } else {
-            if (changed = (this.value != null)) {
+            if (changed = (this.value != null || this.stringValue != null)) {
                 this.value = null;
                 this.stringValue = null;
             }
         }
+        if (this.store != null) {
+            storeValue();
+        }
         if (changed) {
-            setChanged();
+            this.changed = true;
         }
         return oldValue;
     }
 
+    // use the shared instance of a value, for attributes whose values many elements have in common
+    private Object share(Object val)
+    {
+        return SharedAttributeValues.isShared(this.key) ? SharedAttributeValues.share(val) : val;
+    }
+
+    /**
+     * Keep the value of this attribute, and any value it is given later, in the supplied off-heap store when it is
+     * numeric or geometric. Values of other types stay on the heap. A value given as a string is stored as it is, and
+     * is only converted, and its numbers stored, the first time the typed value is asked for, so that its string value
+     * is always the one given. A value kept off-heap is converted back to an object (or a string) each time it is asked
+     * for, so the objects returned are not shared with the attribute.
+     *
+     * @param offHeap the store to use
+     */
+    final void attachStore(OffHeapAttributeStore offHeap)
+    {
+        if (this.store != null || recordLength() == 0) {
+            return;
+        }
+        this.store = offHeap;
+        storeValue();
+    }
+
+    /**
+     * Bring the value of this attribute back on the heap and give back its off-heap space.
+     */
+    final void detachStore()
+    {
+        if (this.store == null) {
+            return;
+        }
+        loadRecords();
+        this.store = null;
+    }
+
+    // number of doubles needed to store a value of this attribute's type, or 0 if it is not kept off-heap
+    private int recordLength()
+    {
+        switch (this.attributeType) {
+            case DOUBLE_TYPE:
+                return 1;
+            case POINT_TYPE:
+            case SIZE_TYPE:
+                return 2;
+            case BOX_TYPE:
+                return 4;
+            default:
+                return 0;
+        }
+    }
+
+    // move the current value and string value off the heap, where the store can hold them
+    private void storeValue()
+    {
+        if (this.value != null) {
+            double[] parts = recordParts(this.value);
+            if (parts == null) {
+                // a value the store cannot hold stays on the heap, along with its string
+                return;
+            }
+            this.record = storeParts(parts);
+            this.value = null;
+        }
+        if (this.stringValue != null) {
+            this.text = this.store.putString(this.stringValue);
+            if (this.text >= 0) {
+                this.stringValue = null;
+            }
+        }
+    }
+
+    // bring the values held off-heap back on the heap, giving back their space
+    private void loadRecords()
+    {
+        if (this.text >= 0) {
+            this.stringValue = this.store.getString(this.text);
+            this.store.freeString(this.text);
+            this.text = -1;
+        }
+        if (this.record >= 0) {
+            this.value = loadValue(this.record);
+            this.store.free(this.record, recordLength());
+            this.record = -1;
+        }
+    }
+
+    // convert the stored string value the first time the typed value is needed, storing the result; readers on other
+    // threads may be doing the same, so this is done under the lock of the store, once, and the text is left in place
+    private Object convertText()
+    {
+        synchronized (this.store) {
+            if (this.record >= 0) {
+                return loadValue(this.record);
+            } else if (this.value != null || this.text < 0) {
+                return this.value;
+            }
+            String str = this.store.getString(this.text);
+            Object obj = convertStringValue(this.elementType, this.name, str, this.attributeType);
+            double[] parts = recordParts(obj);
+            if (parts == null) {
+                // not something the store can hold (e.g., a dimensioned box), so keep the value on the heap
+                this.value = obj;
+            } else {
+                this.record = storeParts(parts);
+            }
+            return obj;
+        }
+    }
+
+    // the doubles making up a value of this attribute's type, or null if the store cannot hold it
+    private double[] recordParts(Object obj)
+    {
+        if (obj instanceof Double && this.attributeType == DOUBLE_TYPE) {
+            return new double[] { ((Double) obj).doubleValue() };
+        } else if (obj instanceof GrappaPoint && this.attributeType == POINT_TYPE) {
+            return new double[] { ((GrappaPoint) obj).x, ((GrappaPoint) obj).y };
+        } else if (obj instanceof GrappaSize && this.attributeType == SIZE_TYPE) {
+            return new double[] { ((GrappaSize) obj).width, ((GrappaSize) obj).height };
+        } else if (obj instanceof GrappaBox && this.attributeType == BOX_TYPE && !((GrappaBox) obj).isDimensioned()) {
+            GrappaBox box = (GrappaBox) obj;
+            return new double[] { box.x, box.y, box.width, box.height };
+        }
+        return null;
+    }
+
+    // put the given doubles in a new record
+    private int storeParts(double[] parts)
+    {
+        int rec = this.store.allocate(parts.length);
+        for (int i = 0; i < parts.length; i++) {
+            this.store.putDouble(rec, i, parts[i]);
+        }
+        return rec;
+    }
+
+    // rebuild the value held in the given record
+    private Object loadValue(int rec)
+    {
+        OffHeapAttributeStore offHeap = this.store;
+        switch (this.attributeType) {
+            case DOUBLE_TYPE:
+                return Double.valueOf(offHeap.getDouble(rec, 0));
+            case POINT_TYPE:
+                return new GrappaPoint(offHeap.getDouble(rec, 0), offHeap.getDouble(rec, 1));
+            case SIZE_TYPE:
+                return new GrappaSize(offHeap.getDouble(rec, 0), offHeap.getDouble(rec, 1));
+            default:
+                return new GrappaBox(offHeap.getDouble(rec, 0), offHeap.getDouble(rec, 1), offHeap.getDouble(rec, 2),
+                    offHeap.getDouble(rec, 3), false);
+        }
+    }
+
     /**
      * Tests for equality with the given attribute.
      *
@@ -291,8 +517,7 @@ public final boolean equals(Attribute attr)
         if (attrValue == null) {
             return false;
         }
-        // note: since getStringValue() was called, stringValue is up-to-date
-        return attrValue.equals(this.stringValue);
+        return attrValue.equals(getStringValue());
     }
 
     /**
@@ -317,8 +542,7 @@ public final boolean equalsValue(Attribute attr)
         if (attrValue == null) {
             return false;
         }
-        // note: since getStringValue() was called, stringValue is up-to-date
-        return attrValue.equals(this.stringValue);
+        return attrValue.equals(getStringValue());
     }
 
     /**
@@ -332,28 +556,166 @@ public final int getNameHash()
     }
 
     /**
-     * Use to indicate that this object has changed. This method is a convenience method that calls the corresponding
-     * protected method of the Observable class.
+     * Get the numeric key of this attribute's name.
      *
-     * @see java.util.Observable#setChanged()
+     * @return the key of the name portion of this attribute
+     * @see AttributeKey
      */
-    @Override
-    public final void setChanged()
+    public final int getKey()
     {
-        super.setChanged();
+        return this.key;
     }
 
     /**
-     * Use to indicate that this object has no longer changed, or that it has already notified all of its observers of
-     * its most recent change. This method is a convenience method that calls the corresponding protected method of the
-     * Observable class.
+     * Add a listener to be told of changes to this attribute. Adding a listener that is already there does nothing.
+     * Attributes are not synchronized: listeners should be added, removed and told of changes on the thread that
+     * changes the graph.
      *
-     * @see java.util.Observable#clearChanged()
+     * @param l the listener to add
+     * @exception IllegalArgumentException if the listener is null
+     */
+    public final void addListener(AttributeListener l) throws IllegalArgumentException
+    {
+        if (l == null) {
+            throw new IllegalArgumentException("cannot add a null listener to an attribute");
+        }
+        if (this.listener == null && this.listeners == null) {
+            this.listener = l;
+            return;
+        }
+        if (this.listener == l) {
+            return;
+        }
+        if (this.listener != null) {
+            this.listeners = new AttributeListener[] { this.listener, l };
+            this.listener = null;
+            return;
+        }
+        for (AttributeListener known : this.listeners) {
+            if (known == l) {
+                return;
+            }
+        }
+        AttributeListener[] more = Arrays.copyOf(this.listeners, this.listeners.length + 1);
+        more[this.listeners.length] = l;
+        this.listeners = more;
+    }
+
+    /**
+     * Remove a listener from this attribute.
+     *
+     * @param l the listener to remove
+     */
+    public final void removeListener(AttributeListener l)
+    {
+        if (this.listener == l) {
+            this.listener = null;
+            return;
+        }
+        if (this.listeners == null) {
+            return;
+        }
+        for (int i = 0; i < this.listeners.length; i++) {
+            if (this.listeners[i] == l) {
+                if (this.listeners.length == 2) {
+                    this.listener = this.listeners[1 - i];
+                    this.listeners = null;
+                } else {
+                    AttributeListener[] fewer = new AttributeListener[this.listeners.length - 1];
+                    System.arraycopy(this.listeners, 0, fewer, 0, i);
+                    System.arraycopy(this.listeners, i + 1, fewer, i, fewer.length - i);
+                    this.listeners = fewer;
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Remove all listeners from this attribute.
+     */
+    public final void removeListeners()
+    {
+        this.listener = null;
+        this.listeners = null;
+    }
+
+    /**
+     * Get the number of listeners of this attribute.
+     *
+     * @return the number of listeners
+     */
+    public final int countListeners()
+    {
+        if (this.listener != null) {
+            return 1;
+        }
+        return (this.listeners == null) ? 0 : this.listeners.length;
+    }
+
+    /**
+     * Check if this attribute has changed since its listeners were last told.
+     *
+     * @return true if this attribute has changed
+     */
+    public final boolean hasChanged()
+    {
+        return this.changed;
+    }
+
+    /**
+     * Use to indicate that this object has changed, so that the next call to <code>notifyListeners</code> tells the
+     * listeners even if the value is the same.
+     */
+    public final void setChanged()
+    {
+        this.changed = true;
+    }
+
+    /**
+     * Use to indicate that this object has no longer changed, or that it has already notified all of its listeners of
+     * its most recent change.
      */
-    @Override
     public final void clearChanged()
     {
-        super.clearChanged();
+        this.changed = false;
+    }
+
+    /**
+     * Tell the listeners of this attribute that it has changed, if it has, and clear the changed indicator.
+     *
+     * @param replacement the attribute now taking the place of this one, or null
+     * @param when the time of the change, as returned by System.currentTimeMillis()
+     * @see AttributeListener#attributeChanged(Attribute, Attribute, long)
+     */
+    public final void notifyListeners(Attribute replacement, long when)
+    {
+        if (!this.changed) {
+            return;
+        }
+        this.changed = false;
+        fireChange(replacement, when);
+    }
+
+    /**
+     * Tell the listeners of this attribute that it has changed, whether or not the changed indicator is set.
+     *
+     * @param replacement the attribute now taking the place of this one, or null
+     * @param when the time of the change
+     */
+    final void fireChange(Attribute replacement, long when)
+    {
+        AttributeListener one = this.listener;
+        if (one != null) {
+            one.attributeChanged(this, replacement, when);
+            return;
+        }
+        AttributeListener[] all = this.listeners;
+        if (all != null) {
+            for (AttributeListener l : all) {
+                l.attributeChanged(this, replacement, when);
+            }
+        }
     }
 
     /**
@@ -398,6 +760,21 @@ public String convertValue(int type, String name, Object value, int attrtype)
                         + "\" is not an instance of Color");
                 }
                 break;
+            case COLOR_LIST_TYPE:
+                if (value instanceof List) {
+                    StringBuilder colors = new StringBuilder();
+                    for (Object color : (List<?>) value) {
+                        if (colors.length() > 0) {
+                            colors.append(':');
+                        }
+                        colors.append(GrappaColor.getColorName((java.awt.Color) color));
+                    }
+                    stringValue = colors.toString();
+                } else {
+                    throw new IllegalArgumentException("value of attribute \"" + name
+                        + "\" is not an instance of List");
+                }
+                break;
             case DIR_TYPE:
                 if (value instanceof Integer) {
                     stringValue = GrappaSupport.xlateDir(((Integer) value).intValue());
@@ -551,7 +928,7 @@ public Object convertStringValue(int type, String name, String stringValue, int
                     value = GrappaColor.getColorList(stringValue);
                     break;
                 case DIR_TYPE:
-                    value = new Integer(GrappaSupport.xlateDirString(stringValue));
+                    value = Integer.valueOf(GrappaSupport.xlateDirString(stringValue));
                     break;
                 case DOUBLE_TYPE:
                     try {
@@ -562,7 +939,7 @@ public Object convertStringValue(int type, String name, String stringValue, int
                     }
                     break;
                 case FONTSTYLE_TYPE:
-                    value = new Integer(GrappaSupport.xlateFontStyleString(stringValue));
+                    value = Integer.valueOf(GrappaSupport.xlateFontStyleString(stringValue));
                     break;
                 case HASHLIST_TYPE:
                     String[] listvals = GrappaSupport.strsplit(stringValue);
@@ -610,7 +987,7 @@ public Object convertStringValue(int type, String name, String stringValue, int
                     value = stringValue;
                     break;
                 case STYLE_TYPE:
-                    value = new GrappaStyle(this.elementType, stringValue);
+                    value = GrappaStyle.getStyle(this.elementType, stringValue);
                     break;
                 default:
                     if (Attribute.specialHandler != null) {
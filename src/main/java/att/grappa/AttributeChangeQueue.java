@@ -0,0 +1,99 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * The attribute changes of a graph whose listeners are yet to be told, kept while the graph holds change notifications.
+ * Changes are told in the order they were first made; an attribute that changes several times while held is told only
+ * once, at the time of its latest change, unless it was replaced in between. A queue is not synchronized.
+ *
+ * @version $Id$
+ * @see Graph#holdChangeNotifications()
+ */
+final class AttributeChangeQueue
+{
+    private Attribute[] attrs = new Attribute[16];
+
+    private Attribute[] replacements = new Attribute[16];
+
+    private long[] times = new long[16];
+
+    private int size = 0;
+
+    // positions of the queued changes that have no replacement, by attribute
+    private final Map<Attribute, Integer> plain = new IdentityHashMap<>();
+
+    /**
+     * Add a change to the queue.
+     *
+     * @param attr the attribute that changed
+     * @param replacement the attribute now taking its place, or null
+     * @param when the time of the change
+     */
+    void add(Attribute attr, Attribute replacement, long when)
+    {
+        if (replacement == null) {
+            Integer pos = this.plain.get(attr);
+            if (pos != null) {
+                this.times[pos.intValue()] = when;
+                return;
+            }
+            this.plain.put(attr, Integer.valueOf(this.size));
+        } else {
+            // later changes of the replaced attribute are not folded into earlier ones
+            this.plain.remove(attr);
+        }
+        if (this.size == this.attrs.length) {
+            int capacity = this.size * 2;
+            this.attrs = Arrays.copyOf(this.attrs, capacity);
+            this.replacements = Arrays.copyOf(this.replacements, capacity);
+            this.times = Arrays.copyOf(this.times, capacity);
+        }
+        this.attrs[this.size] = attr;
+        this.replacements[this.size] = replacement;
+        this.times[this.size] = when;
+        this.size++;
+    }
+
+    /**
+     * Check if there are no changes in the queue.
+     *
+     * @return true if the queue is empty
+     */
+    boolean isEmpty()
+    {
+        return this.size == 0;
+    }
+
+    /**
+     * Tell the listeners of every queued change, in order, and empty the queue. Changes made by the listeners
+     * themselves are told at once rather than queued, since the queue is emptied first.
+     */
+    void dispatch()
+    {
+        Attribute[] held = this.attrs;
+        Attribute[] heldReplacements = this.replacements;
+        long[] heldTimes = this.times;
+        int count = this.size;
+        this.attrs = new Attribute[16];
+        this.replacements = new Attribute[16];
+        this.times = new long[16];
+        this.size = 0;
+        this.plain.clear();
+        for (int i = 0; i < count; i++) {
+            held[i].fireChange(heldReplacements[i], heldTimes[i]);
+        }
+    }
+}
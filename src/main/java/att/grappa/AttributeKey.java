@@ -0,0 +1,175 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The registry of numeric attribute keys. Every attribute name is given a small integer key, so that code that looks
+ * up attributes often can index arrays and switch on the key rather than hash and compare names. The standard
+ * attributes have the fixed keys defined in <code>GrappaConstants</code> (such as <code>POS_KEY</code>); any other
+ * name is given the next free key, starting at <code>STANDARD_KEY_COUNT</code>, the first time it is registered, and
+ * keeps it for the life of the application. Every <code>Attribute</code> registers its name when it is created.
+ * <p>
+ * The registry is shared by all graphs and is thread-safe; looking up a key or a name does not lock.
+ * </p>
+ *
+ * @version $Id$
+ * @see Attribute#getKey()
+ * @see Element#getAttribute(int)
+ */
+public final class AttributeKey implements GrappaConstants
+{
+    private static final Map<String, Integer> keys = new ConcurrentHashMap<>();
+
+    // names by key; replaced (never changed in place at an index in use) when it grows
+    private static volatile String[] names = new String[STANDARD_KEY_COUNT * 2];
+
+    private static int nextKey = STANDARD_KEY_COUNT;
+
+    static {
+        register(POS_ATTR, POS_KEY);
+        register(WIDTH_ATTR, WIDTH_KEY);
+        register(HEIGHT_ATTR, HEIGHT_KEY);
+        register(SHAPE_ATTR, SHAPE_KEY);
+        register(PERIPHERIES_ATTR, PERIPHERIES_KEY);
+        register(SIDES_ATTR, SIDES_KEY);
+        register(DISTORTION_ATTR, DISTORTION_KEY);
+        register(SKEW_ATTR, SKEW_KEY);
+        register(ORIENTATION_ATTR, ORIENTATION_KEY);
+        register(ROTATION_ATTR, ROTATION_KEY);
+        register(CUSTOM_ATTR, CUSTOM_KEY);
+        register(STYLE_ATTR, STYLE_KEY);
+        register(LABEL_ATTR, LABEL_KEY);
+        register(LP_ATTR, LP_KEY);
+        register(HEADLABEL_ATTR, HEADLABEL_KEY);
+        register(HEADLP_ATTR, HEADLP_KEY);
+        register(TAILLABEL_ATTR, TAILLABEL_KEY);
+        register(TAILLP_ATTR, TAILLP_KEY);
+        register(FONTNAME_ATTR, FONTNAME_KEY);
+        register(FONTSTYLE_ATTR, FONTSTYLE_KEY);
+        register(FONTSIZE_ATTR, FONTSIZE_KEY);
+        register(COLOR_ATTR, COLOR_KEY);
+        register(FILLCOLOR_ATTR, FILLCOLOR_KEY);
+        register(FONTCOLOR_ATTR, FONTCOLOR_KEY);
+        register(DIR_ATTR, DIR_KEY);
+        register(IMAGE_ATTR, IMAGE_KEY);
+        register(MINSIZE_ATTR, MINSIZE_KEY);
+        register(MINBOX_ATTR, MINBOX_KEY);
+        register(BBOX_ATTR, BBOX_KEY);
+        register(TIP_ATTR, TIP_KEY);
+        register(TAG_ATTR, TAG_KEY);
+        register(PRINTLIST_ATTR, PRINTLIST_KEY);
+        register(CLUSTERRANK_ATTR, CLUSTERRANK_KEY);
+        register(GRAPPA_BACKGROUND_COLOR_ATTR, GRAPPA_BACKGROUND_COLOR_KEY);
+        register(GRAPPA_SELECTION_STYLE_ATTR, GRAPPA_SELECTION_STYLE_KEY);
+        register(GRAPPA_DELETION_STYLE_ATTR, GRAPPA_DELETION_STYLE_KEY);
+        register(GRAPPA_FONTSIZE_ADJUSTMENT_ATTR, GRAPPA_FONTSIZE_ADJUSTMENT_KEY);
+        register(MARGIN_ATTR, MARGIN_KEY);
+        register(MCLIMIT_ATTR, MCLIMIT_KEY);
+        register(MINLEN_ATTR, MINLEN_KEY);
+        register(NODESEP_ATTR, NODESEP_KEY);
+        register(PATCH_ATTR, PATCH_KEY);
+        register(RANKDIR_ATTR, RANKDIR_KEY);
+        register(RANKSEP_ATTR, RANKSEP_KEY);
+        register(RECTS_ATTR, RECTS_KEY);
+        register(SIZE_ATTR, SIZE_KEY);
+        register(WEIGHT_ATTR, WEIGHT_KEY);
+    }
+
+    private AttributeKey()
+    {
+    }
+
+    /**
+     * Get the key of an attribute name, registering the name if it has no key yet.
+     *
+     * @param name the attribute name
+     * @return the key
+     * @exception IllegalArgumentException if the name is null
+     */
+    public static int getKey(String name) throws IllegalArgumentException
+    {
+        if (name == null) {
+            throw new IllegalArgumentException("an attribute name cannot be null");
+        }
+        Integer key = keys.get(name);
+        if (key != null) {
+            return key.intValue();
+        }
+        return register(name, -1);
+    }
+
+    /**
+     * Get the key of an attribute name without registering it. Since every attribute registers its name, a name
+     * without a key is not the name of any attribute.
+     *
+     * @param name the attribute name
+     * @return the key, or -1 if the name has no key
+     */
+    public static int findKey(String name)
+    {
+        if (name == null) {
+            return -1;
+        }
+        Integer key = keys.get(name);
+        return (key == null) ? -1 : key.intValue();
+    }
+
+    /**
+     * Get the attribute name registered for a key.
+     *
+     * @param key the key
+     * @return the name
+     * @exception IllegalArgumentException if no name has the key
+     */
+    public static String getName(int key) throws IllegalArgumentException
+    {
+        String[] known = names;
+        if (key < 0 || key >= known.length || known[key] == null) {
+            throw new IllegalArgumentException("no attribute name has the key " + key);
+        }
+        return known[key];
+    }
+
+    /**
+     * Get the number of keys handed out so far, which bounds every key.
+     *
+     * @return one more than the largest key
+     */
+    public static synchronized int getKeyLimit()
+    {
+        return nextKey;
+    }
+
+    // give a name the specified key, or the next free one if the key is negative
+    private static synchronized int register(String name, int key)
+    {
+        Integer known = keys.get(name);
+        if (known != null) {
+            return known.intValue();
+        }
+        if (key < 0) {
+            key = nextKey++;
+        }
+        String[] table = names;
+        if (key >= table.length) {
+            table = Arrays.copyOf(table, table.length * 2);
+        }
+        table[key] = name;
+        // publish the name before the key, so that whoever finds the key also finds the name
+        names = table;
+        keys.put(name, Integer.valueOf(key));
+        return key;
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+/**
+ * An interface for objects that want to be told when an attribute changes.
+ *
+ * @version $Id$
+ * @see Attribute#addListener(AttributeListener)
+ */
+public interface AttributeListener
+{
+    /**
+     * Called after an attribute being listened to has changed. When the changed attribute has been taken out of its
+     * element or subgraph and another one now stands in its place (for instance, when a local attribute is removed and
+     * the default applies again), the replacement is supplied, and the listener should listen to it from now on.
+     *
+     * @param attr the attribute that changed
+     * @param replacement the attribute now taking the place of <I>attr</I>, or null
+     * @param when the time of the change, as returned by System.currentTimeMillis()
+     */
+    public void attributeChanged(Attribute attr, Attribute replacement, long when);
+}
@@ -0,0 +1,380 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A compact map from attribute names to attributes, for the attribute tables of elements and the default tables of
+ * subgraphs. Most elements carry only a handful of attributes, so the pairs are kept in plain arrays in the order they
+ * were added, along with the hash and the numeric key of each name, and are found by a linear scan of the hashes or
+ * keys; a table with more than <code>LINEAR_LIMIT</code> pairs is also indexed by a small open-addressing table of
+ * positions. Compared to a <code>Hashtable</code> there is no entry object per pair and no locking. Like a
+ * <code>Hashtable</code>, null names and values are not allowed. A map is not synchronized.
+ *
+ * @version $Id$
+ */
+final class AttributeMap extends AbstractMap<String, Attribute>
+{
+    /**
+     * Largest number of pairs found by a linear scan alone.
+     */
+    static final int LINEAR_LIMIT = 16;
+
+    private String[] names;
+
+    // the hash of each name in the high half and its numeric key in the low half
+    private long[] codes;
+
+    private Attribute[] values;
+
+    private int size = 0;
+
+    // positions of the pairs plus one (zero marks an empty slot), by key; null while the map is small
+    private int[] index = null;
+
+    // count of changes to the pairs, so iterators can tell they were disturbed
+    private int modCount = 0;
+
+    /**
+     * Create an empty map.
+     */
+    AttributeMap()
+    {
+        this(4);
+    }
+
+    /**
+     * Create an empty map with room for the given number of pairs.
+     *
+     * @param capacity the initial number of pairs the map can hold
+     */
+    AttributeMap(int capacity)
+    {
+        capacity = Math.max(capacity, 1);
+        this.names = new String[capacity];
+        this.codes = new long[capacity];
+        this.values = new Attribute[capacity];
+    }
+
+    @Override
+    public int size()
+    {
+        return this.size;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return this.size == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key)
+    {
+        return find(key) >= 0;
+    }
+
+    @Override
+    public Attribute get(Object key)
+    {
+        int pos = find(key);
+        return (pos < 0) ? null : this.values[pos];
+    }
+
+    @Override
+    public Attribute put(String key, Attribute value)
+    {
+        if (key == null || value == null) {
+            throw new NullPointerException();
+        }
+        int code = (value.getName() == key) ? value.getKey() : AttributeKey.getKey(key);
+        int pos = find(code);
+        if (pos >= 0) {
+            Attribute old = this.values[pos];
+            this.values[pos] = value;
+            return old;
+        }
+        if (this.size == this.names.length) {
+            int capacity = this.size * 2;
+            this.names = Arrays.copyOf(this.names, capacity);
+            this.codes = Arrays.copyOf(this.codes, capacity);
+            this.values = Arrays.copyOf(this.values, capacity);
+        }
+        pos = this.size++;
+        this.names[pos] = key;
+        this.codes[pos] = ((long) key.hashCode() << 32) | (code & 0xFFFFFFFFL);
+        this.values[pos] = value;
+        this.modCount++;
+        if (this.index != null && this.size * 2 <= this.index.length) {
+            addToIndex(this.index, pos);
+        } else if (this.size > LINEAR_LIMIT) {
+            buildIndex();
+        }
+        return null;
+    }
+
+    @Override
+    public Attribute remove(Object key)
+    {
+        int pos = find(key);
+        if (pos < 0) {
+            return null;
+        }
+        Attribute old = this.values[pos];
+        removeAt(pos);
+        return old;
+    }
+
+    @Override
+    public void clear()
+    {
+        Arrays.fill(this.names, 0, this.size, null);
+        Arrays.fill(this.values, 0, this.size, null);
+        this.size = 0;
+        this.index = null;
+        this.modCount++;
+    }
+
+    @Override
+    public Set<String> keySet()
+    {
+        return new AbstractSet<String>()
+        {
+            @Override
+            public Iterator<String> iterator()
+            {
+                return new PairIterator<String>()
+                {
+                    @Override
+                    String get(int pos)
+                    {
+                        return AttributeMap.this.names[pos];
+                    }
+                };
+            }
+
+            @Override
+            public int size()
+            {
+                return AttributeMap.this.size;
+            }
+
+            @Override
+            public boolean contains(Object o)
+            {
+                return containsKey(o);
+            }
+        };
+    }
+
+    @Override
+    public Collection<Attribute> values()
+    {
+        return new AbstractCollection<Attribute>()
+        {
+            @Override
+            public Iterator<Attribute> iterator()
+            {
+                return new PairIterator<Attribute>()
+                {
+                    @Override
+                    Attribute get(int pos)
+                    {
+                        return AttributeMap.this.values[pos];
+                    }
+                };
+            }
+
+            @Override
+            public int size()
+            {
+                return AttributeMap.this.size;
+            }
+        };
+    }
+
+    @Override
+    public Set<Map.Entry<String, Attribute>> entrySet()
+    {
+        return new AbstractSet<Map.Entry<String, Attribute>>()
+        {
+            @Override
+            public Iterator<Map.Entry<String, Attribute>> iterator()
+            {
+                return new PairIterator<Map.Entry<String, Attribute>>()
+                {
+                    @Override
+                    Map.Entry<String, Attribute> get(int pos)
+                    {
+                        return new AbstractMap.SimpleImmutableEntry<>(AttributeMap.this.names[pos],
+                            AttributeMap.this.values[pos]);
+                    }
+                };
+            }
+
+            @Override
+            public int size()
+            {
+                return AttributeMap.this.size;
+            }
+        };
+    }
+
+    /**
+     * Get the attribute with the given numeric key.
+     *
+     * @param key the key of the attribute name
+     * @return the attribute, or null
+     * @see AttributeKey
+     */
+    Attribute get(int key)
+    {
+        int pos = find(key);
+        return (pos < 0) ? null : this.values[pos];
+    }
+
+    // get the position of the pair with the given name, or -1
+    private int find(Object name)
+    {
+        if (!(name instanceof String)) {
+            return -1;
+        }
+        if (this.index == null) {
+            int hash = name.hashCode();
+            for (int i = 0; i < this.size; i++) {
+                if ((int) (this.codes[i] >>> 32) == hash && (this.names[i] == name || this.names[i].equals(name))) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        int key = AttributeKey.findKey((String) name);
+        return (key < 0) ? -1 : find(key);
+    }
+
+    // get the position of the pair with the given key, or -1
+    private int find(int key)
+    {
+        if (this.index == null) {
+            for (int i = 0; i < this.size; i++) {
+                if ((int) this.codes[i] == key) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        int[] table = this.index;
+        int mask = table.length - 1;
+        for (int slot = key & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            int i = table[slot] - 1;
+            if ((int) this.codes[i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void removeAt(int pos)
+    {
+        int moved = this.size - pos - 1;
+        if (moved > 0) {
+            System.arraycopy(this.names, pos + 1, this.names, pos, moved);
+            System.arraycopy(this.codes, pos + 1, this.codes, pos, moved);
+            System.arraycopy(this.values, pos + 1, this.values, pos, moved);
+        }
+        this.size--;
+        this.names[this.size] = null;
+        this.values[this.size] = null;
+        this.modCount++;
+        // positions have shifted, so index afresh (removals are rare)
+        if (this.size > LINEAR_LIMIT) {
+            buildIndex();
+        } else {
+            this.index = null;
+        }
+    }
+
+    private void buildIndex()
+    {
+        int capacity = Integer.highestOneBit(this.size * 4 - 1);
+        int[] table = new int[capacity];
+        for (int i = 0; i < this.size; i++) {
+            addToIndex(table, i);
+        }
+        this.index = table;
+    }
+
+    private void addToIndex(int[] table, int pos)
+    {
+        int mask = table.length - 1;
+        int slot = (int) this.codes[pos] & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = pos + 1;
+    }
+
+    // an iterator over the pairs in the order they were added
+    private abstract class PairIterator<T> implements Iterator<T>
+    {
+        private int next = 0;
+
+        private int last = -1;
+
+        private int expected = AttributeMap.this.modCount;
+
+        abstract T get(int pos);
+
+        @Override
+        public boolean hasNext()
+        {
+            return this.next < AttributeMap.this.size;
+        }
+
+        @Override
+        public T next()
+        {
+            if (this.expected != AttributeMap.this.modCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (this.next >= AttributeMap.this.size) {
+                throw new NoSuchElementException();
+            }
+            this.last = this.next++;
+            return get(this.last);
+        }
+
+        @Override
+        public void remove()
+        {
+            if (this.last < 0) {
+                throw new IllegalStateException();
+            }
+            if (this.expected != AttributeMap.this.modCount) {
+                throw new ConcurrentModificationException();
+            }
+            removeAt(this.last);
+            this.next = this.last;
+            this.last = -1;
+            this.expected = AttributeMap.this.modCount;
+        }
+    }
+}
@@ -0,0 +1,1024 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A compact, read-only representation of a graph for graphs too large to hold as <code>Node</code>,
+ * <code>Edge</code> and <code>Subgraph</code> objects. Nodes, edges and subgraphs are identified by their index;
+ * topology is kept in primitive arrays, with the edges of each node in compressed sparse row form, and attribute
+ * values are kept as strings in one column per attribute name rather than in a table per element. Default attributes
+ * set in a subgraph apply to the nodes and edges of the subgraph and its descendents, as they do in a
+ * <code>Graph</code>.
+ * <p>
+ * A compact graph is read directly from <i>dot</i> input with <code>parse</code>, or built from any parser with a
+ * <code>Builder</code>. When the regular <code>Element</code> API is needed, for instance to draw the graph or to run
+ * it through <code>GrappaSupport.filterGraph</code>, <code>toGraph</code> creates the equivalent <code>Graph</code>,
+ * and <code>toGraph(int[])</code> creates one holding only a selection of the nodes, so that only the part being
+ * worked on pays the per-element cost.
+ * </p>
+ * <p>
+ * This is a separate store, not a backing store behind <code>Node</code>, <code>Edge</code> and
+ * <code>Subgraph</code>: those classes keep their attribute tables, edge lists and drawing state in fields the rest of
+ * the package uses directly, so the elements of a <code>Graph</code> cannot be made views over these columns without
+ * giving up that state. The heap saving only holds while the graph is used through this class.
+ * </p>
+ *
+ * @version $Id$
+ */
+public class CompactGraph
+{
+    private final String name;
+
+    private final boolean directed;
+
+    private final boolean strict;
+
+    private final int nodeCount;
+
+    private final int edgeCount;
+
+    private final int subgraphCount;
+
+    private final String[] nodeNames;
+
+    private final int[] nodeSubgraph;
+
+    private final Map<String, Integer> nodeIndex;
+
+    private final int[] edgeTail;
+
+    private final int[] edgeHead;
+
+    private final int[] edgeSubgraph;
+
+    private final String[] tailPorts;
+
+    private final String[] headPorts;
+
+    private final String[] subgraphNames;
+
+    private final int[] subgraphParent;
+
+    private final Map<String, Integer> subgraphIndex;
+
+    private final List<Map<String, String>> graphAttributes;
+
+    private final List<Map<String, String>> nodeDefaults;
+
+    private final List<Map<String, String>> edgeDefaults;
+
+    private final Map<String, String[]> nodeColumns;
+
+    private final Map<String, String[]> edgeColumns;
+
+    // compressed sparse row adjacency: the edges of node n are at [offsets[n], offsets[n+1]) in edges
+    private final int[] outOffsets;
+
+    private final int[] outEdges;
+
+    private final int[] inOffsets;
+
+    private final int[] inEdges;
+
+    // for a snapshot, the ids of the elements each node, edge and subgraph was taken from (null otherwise)
+    private final int[] nodeIds;
+
+    private final int[] edgeIds;
+
+    private final int[] subgraphIds;
+
+    private CompactGraph(Builder builder)
+    {
+        this.name = builder.name;
+        this.directed = builder.directed;
+        this.strict = builder.strict;
+        this.nodeCount = builder.nodeCount;
+        this.edgeCount = builder.edgeCount;
+        this.subgraphCount = builder.subgraphNames.size();
+
+        this.nodeNames = Arrays.copyOf(builder.nodeNames, this.nodeCount);
+        this.nodeSubgraph = Arrays.copyOf(builder.nodeSubgraph, this.nodeCount);
+        this.nodeIndex = builder.nodeIndex;
+        this.edgeTail = Arrays.copyOf(builder.edgeTail, this.edgeCount);
+        this.edgeHead = Arrays.copyOf(builder.edgeHead, this.edgeCount);
+        this.edgeSubgraph = Arrays.copyOf(builder.edgeSubgraph, this.edgeCount);
+        this.tailPorts = trim(builder.tailPorts, this.edgeCount);
+        this.headPorts = trim(builder.headPorts, this.edgeCount);
+        this.subgraphNames = builder.subgraphNames.toArray(new String[this.subgraphCount]);
+        this.subgraphParent = Arrays.copyOf(builder.subgraphParent, this.subgraphCount);
+        this.subgraphIndex = builder.subgraphIndex;
+        this.graphAttributes = builder.graphAttributes;
+        this.nodeDefaults = builder.nodeDefaults;
+        this.edgeDefaults = builder.edgeDefaults;
+        this.nodeColumns = trim(builder.nodeColumns, this.nodeCount);
+        this.edgeColumns = trim(builder.edgeColumns, this.edgeCount);
+
+        this.outOffsets = new int[this.nodeCount + 1];
+        this.outEdges = new int[this.edgeCount];
+        rows(this.edgeTail, this.outOffsets, this.outEdges);
+        this.inOffsets = new int[this.nodeCount + 1];
+        this.inEdges = new int[this.edgeCount];
+        rows(this.edgeHead, this.inOffsets, this.inEdges);
+
+        this.nodeIds = trim(builder.nodeIds, this.nodeCount);
+        this.edgeIds = trim(builder.edgeIds, this.edgeCount);
+        this.subgraphIds = trim(builder.subgraphIds, this.subgraphCount);
+    }
+
+    // a snapshot sharing the structure of an earlier one, with the attributes collected by the builder
+    private CompactGraph(CompactGraph structure, Builder builder)
+    {
+        this.name = builder.name;
+        this.directed = builder.directed;
+        this.strict = builder.strict;
+        this.nodeCount = structure.nodeCount;
+        this.edgeCount = structure.edgeCount;
+        this.subgraphCount = structure.subgraphCount;
+
+        this.nodeNames = structure.nodeNames;
+        this.nodeSubgraph = structure.nodeSubgraph;
+        this.nodeIndex = structure.nodeIndex;
+        this.edgeTail = structure.edgeTail;
+        this.edgeHead = structure.edgeHead;
+        this.edgeSubgraph = structure.edgeSubgraph;
+        this.tailPorts = structure.tailPorts;
+        this.headPorts = structure.headPorts;
+        this.subgraphNames = structure.subgraphNames;
+        this.subgraphParent = structure.subgraphParent;
+        this.subgraphIndex = structure.subgraphIndex;
+        this.graphAttributes = builder.graphAttributes;
+        this.nodeDefaults = builder.nodeDefaults;
+        this.edgeDefaults = builder.edgeDefaults;
+        this.nodeColumns = trim(builder.nodeColumns, this.nodeCount);
+        this.edgeColumns = trim(builder.edgeColumns, this.edgeCount);
+
+        this.outOffsets = structure.outOffsets;
+        this.outEdges = structure.outEdges;
+        this.inOffsets = structure.inOffsets;
+        this.inEdges = structure.inEdges;
+
+        this.nodeIds = structure.nodeIds;
+        this.edgeIds = structure.edgeIds;
+        this.subgraphIds = structure.subgraphIds;
+    }
+
+    // bucket the edges by the given end-point (counting sort, so edges keep their input order within a row)
+    private void rows(int[] ends, int[] offsets, int[] edges)
+    {
+        for (int e = 0; e < this.edgeCount; e++) {
+            offsets[ends[e] + 1]++;
+        }
+        for (int n = 0; n < this.nodeCount; n++) {
+            offsets[n + 1] += offsets[n];
+        }
+        int[] fill = Arrays.copyOf(offsets, this.nodeCount);
+        for (int e = 0; e < this.edgeCount; e++) {
+            edges[fill[ends[e]]++] = e;
+        }
+    }
+
+    private static String[] trim(String[] values, int length)
+    {
+        return (values == null) ? null : Arrays.copyOf(values, length);
+    }
+
+    private static int[] trim(int[] values, int length)
+    {
+        return (values == null) ? null : Arrays.copyOf(values, length);
+    }
+
+    private static Map<String, String[]> trim(Map<String, String[]> columns, int length)
+    {
+        for (Map.Entry<String, String[]> entry : columns.entrySet()) {
+            if (entry.getValue().length != length) {
+                entry.setValue(Arrays.copyOf(entry.getValue(), length));
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Parse <i>dot</i> input into a compact graph. No <code>Element</code> objects are created.
+     *
+     * @param input input <code>Reader</code> object
+     * @param errorWriter error output <code>Writer</code> object (or null to suppress error output)
+     * @return the compact graph
+     * @exception Exception if the input cannot be parsed
+     */
+    public static CompactGraph parse(Reader input, PrintWriter errorWriter) throws Exception
+    {
+        Builder builder = new Builder();
+        Parser parser = new Parser(input, errorWriter, null, true);
+        parser.setListener(builder);
+        parser.parse();
+        return builder.build();
+    }
+
+    /**
+     * Take a snapshot of a graph. The caller must keep the graph from being changed meanwhile.
+     *
+     * @param graph the graph
+     * @param previous an earlier snapshot of the graph whose subgraphs, nodes and edges are still current, or null
+     * @return the snapshot, sharing its structure with <code>previous</code> if given
+     * @see Graph#snapshot()
+     */
+    static CompactGraph snapshot(Graph graph, CompactGraph previous)
+    {
+        Builder builder = new Builder();
+        builder.startGraph(graph.getName(), graph.isDirected(), graph.isStrict());
+        if (previous != null && previous.subgraphIds != null) {
+            builder.collectAttributes(graph, previous);
+            return new CompactGraph(previous, builder);
+        }
+        builder.collectSubgraph(graph);
+        builder.collectEdges(graph);
+        return new CompactGraph(builder);
+    }
+
+    /**
+     * Get the name of the graph.
+     *
+     * @return the graph name
+     */
+    public String getName()
+    {
+        return this.name;
+    }
+
+    /**
+     * Check if the graph is directed.
+     *
+     * @return true for a directed graph
+     */
+    public boolean isDirected()
+    {
+        return this.directed;
+    }
+
+    /**
+     * Check if the graph is strict.
+     *
+     * @return true for a strict graph
+     */
+    public boolean isStrict()
+    {
+        return this.strict;
+    }
+
+    /**
+     * Get the number of nodes.
+     *
+     * @return the number of nodes
+     */
+    public int getNodeCount()
+    {
+        return this.nodeCount;
+    }
+
+    /**
+     * Get the number of edges.
+     *
+     * @return the number of edges
+     */
+    public int getEdgeCount()
+    {
+        return this.edgeCount;
+    }
+
+    /**
+     * Get the number of subgraphs, including the root graph, which is subgraph 0.
+     *
+     * @return the number of subgraphs
+     */
+    public int getSubgraphCount()
+    {
+        return this.subgraphCount;
+    }
+
+    /**
+     * Get the name of a node.
+     *
+     * @param node the node index
+     * @return the node name
+     */
+    public String getNodeName(int node)
+    {
+        return this.nodeNames[node];
+    }
+
+    /**
+     * Get the index of the node with the given name.
+     *
+     * @param nodeName the node name
+     * @return the node index, or -1 if there is no such node
+     */
+    public int findNode(String nodeName)
+    {
+        Integer index = this.nodeIndex.get(nodeName);
+        return (index == null) ? -1 : index.intValue();
+    }
+
+    /**
+     * Get the subgraph in which a node was created.
+     *
+     * @param node the node index
+     * @return the subgraph index
+     */
+    public int getNodeSubgraph(int node)
+    {
+        return this.nodeSubgraph[node];
+    }
+
+    /**
+     * Get the tail node of an edge.
+     *
+     * @param edge the edge index
+     * @return the node index of the tail
+     */
+    public int getTail(int edge)
+    {
+        return this.edgeTail[edge];
+    }
+
+    /**
+     * Get the head node of an edge.
+     *
+     * @param edge the edge index
+     * @return the node index of the head
+     */
+    public int getHead(int edge)
+    {
+        return this.edgeHead[edge];
+    }
+
+    /**
+     * Get the tail port of an edge.
+     *
+     * @param edge the edge index
+     * @return the tail port, or null
+     */
+    public String getTailPort(int edge)
+    {
+        return (this.tailPorts == null) ? null : this.tailPorts[edge];
+    }
+
+    /**
+     * Get the head port of an edge.
+     *
+     * @param edge the edge index
+     * @return the head port, or null
+     */
+    public String getHeadPort(int edge)
+    {
+        return (this.headPorts == null) ? null : this.headPorts[edge];
+    }
+
+    /**
+     * Get the subgraph in which an edge was created.
+     *
+     * @param edge the edge index
+     * @return the subgraph index
+     */
+    public int getEdgeSubgraph(int edge)
+    {
+        return this.edgeSubgraph[edge];
+    }
+
+    /**
+     * Get the number of edges leaving a node.
+     *
+     * @param node the node index
+     * @return the number of edges whose tail is the node
+     */
+    public int getOutDegree(int node)
+    {
+        return this.outOffsets[node + 1] - this.outOffsets[node];
+    }
+
+    /**
+     * Get an edge leaving a node.
+     *
+     * @param node the node index
+     * @param i the position of the edge among the edges leaving the node, from 0 to <code>getOutDegree(node)</code>
+     * @return the edge index
+     */
+    public int getOutEdge(int node, int i)
+    {
+        return this.outEdges[this.outOffsets[node] + i];
+    }
+
+    /**
+     * Get the number of edges entering a node.
+     *
+     * @param node the node index
+     * @return the number of edges whose head is the node
+     */
+    public int getInDegree(int node)
+    {
+        return this.inOffsets[node + 1] - this.inOffsets[node];
+    }
+
+    /**
+     * Get an edge entering a node.
+     *
+     * @param node the node index
+     * @param i the position of the edge among the edges entering the node, from 0 to <code>getInDegree(node)</code>
+     * @return the edge index
+     */
+    public int getInEdge(int node, int i)
+    {
+        return this.inEdges[this.inOffsets[node] + i];
+    }
+
+    /**
+     * Get the name of a subgraph.
+     *
+     * @param subgraph the subgraph index
+     * @return the subgraph name
+     */
+    public String getSubgraphName(int subgraph)
+    {
+        return this.subgraphNames[subgraph];
+    }
+
+    /**
+     * Get the index of the subgraph with the given name.
+     *
+     * @param subgName the subgraph name
+     * @return the subgraph index, or -1 if there is no such subgraph
+     */
+    public int findSubgraph(String subgName)
+    {
+        Integer index = this.subgraphIndex.get(subgName);
+        return (index == null) ? -1 : index.intValue();
+    }
+
+    /**
+     * Get the parent of a subgraph.
+     *
+     * @param subgraph the subgraph index
+     * @return the index of the enclosing subgraph, or -1 for the root graph
+     */
+    public int getSubgraphParent(int subgraph)
+    {
+        return this.subgraphParent[subgraph];
+    }
+
+    /**
+     * Get the names of the attributes set on at least one node.
+     *
+     * @return the node attribute names
+     */
+    public Set<String> getNodeAttributeNames()
+    {
+        return Collections.unmodifiableSet(this.nodeColumns.keySet());
+    }
+
+    /**
+     * Get the names of the attributes set on at least one edge.
+     *
+     * @return the edge attribute names
+     */
+    public Set<String> getEdgeAttributeNames()
+    {
+        return Collections.unmodifiableSet(this.edgeColumns.keySet());
+    }
+
+    /**
+     * Get the value of a node attribute, either set on the node or defaulted in its subgraph or an enclosing one.
+     *
+     * @param node the node index
+     * @param key the attribute name
+     * @return the attribute value, or null
+     */
+    public String getNodeAttribute(int node, String key)
+    {
+        String[] column = this.nodeColumns.get(key);
+        if (column != null && column[node] != null) {
+            return column[node];
+        }
+        return lookup(this.nodeDefaults, this.nodeSubgraph[node], key);
+    }
+
+    /**
+     * Get the value of an edge attribute, either set on the edge or defaulted in its subgraph or an enclosing one.
+     *
+     * @param edge the edge index
+     * @param key the attribute name
+     * @return the attribute value, or null
+     */
+    public String getEdgeAttribute(int edge, String key)
+    {
+        String[] column = this.edgeColumns.get(key);
+        if (column != null && column[edge] != null) {
+            return column[edge];
+        }
+        return lookup(this.edgeDefaults, this.edgeSubgraph[edge], key);
+    }
+
+    /**
+     * Get the value of a graph attribute of a subgraph, either set on it or on an enclosing one.
+     *
+     * @param subgraph the subgraph index
+     * @param key the attribute name
+     * @return the attribute value, or null
+     */
+    public String getSubgraphAttribute(int subgraph, String key)
+    {
+        return lookup(this.graphAttributes, subgraph, key);
+    }
+
+    private String lookup(List<Map<String, String>> defaults, int subgraph, String key)
+    {
+        for (int sg = subgraph; sg >= 0; sg = this.subgraphParent[sg]) {
+            Map<String, String> attrs = defaults.get(sg);
+            if (attrs != null) {
+                String value = attrs.get(key);
+                if (value != null) {
+                    return value;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Create a <code>Graph</code> with the same subgraphs, nodes, edges and attributes as this compact graph.
+     *
+     * @return a new graph
+     */
+    public Graph toGraph()
+    {
+        return toGraph(null);
+    }
+
+    /**
+     * Create a <code>Graph</code> holding the given nodes, the edges between them and the subgraphs they belong to,
+     * with their attributes. Subgraphs with none of the nodes or edges are left out.
+     *
+     * @param selection the indices of the nodes to include, or null for all of them
+     * @return a new graph
+     */
+    public Graph toGraph(int[] selection)
+    {
+        boolean[] wanted = null;
+        boolean[] used = null;
+        if (selection != null) {
+            wanted = new boolean[this.nodeCount];
+            used = new boolean[this.subgraphCount];
+            for (int n : selection) {
+                wanted[n] = true;
+                used[this.nodeSubgraph[n]] = true;
+            }
+            for (int e = 0; e < this.edgeCount; e++) {
+                if (wanted[this.edgeTail[e]] && wanted[this.edgeHead[e]]) {
+                    used[this.edgeSubgraph[e]] = true;
+                }
+            }
+            // children always come after their parents, so one backward pass marks every enclosing subgraph
+            for (int sg = this.subgraphCount - 1; sg > 0; sg--) {
+                if (used[sg]) {
+                    used[this.subgraphParent[sg]] = true;
+                }
+            }
+        }
+
+        Graph graph = new Graph(this.name, this.directed, this.strict);
+        Subgraph[] subgraphs = new Subgraph[this.subgraphCount];
+        subgraphs[0] = graph;
+        // a subgraph takes its defaults from its parent when it is created, so set them before creating children
+        // (parents always come before their children)
+        for (int sg = 0; sg < this.subgraphCount; sg++) {
+            if (used != null && !used[sg]) {
+                continue;
+            }
+            if (sg > 0) {
+                subgraphs[sg] = new Subgraph(subgraphs[this.subgraphParent[sg]], this.subgraphNames[sg]);
+            }
+            Subgraph subg = subgraphs[sg];
+            if (this.graphAttributes.get(sg) != null) {
+                for (Map.Entry<String, String> entry : this.graphAttributes.get(sg).entrySet()) {
+                    subg.setAttribute(entry.getKey(), entry.getValue());
+                }
+            }
+            if (this.nodeDefaults.get(sg) != null) {
+                for (Map.Entry<String, String> entry : this.nodeDefaults.get(sg).entrySet()) {
+                    subg.setNodeAttribute(entry.getKey(), entry.getValue());
+                }
+            }
+            if (this.edgeDefaults.get(sg) != null) {
+                for (Map.Entry<String, String> entry : this.edgeDefaults.get(sg).entrySet()) {
+                    subg.setEdgeAttribute(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+
+        Node[] nodes = new Node[this.nodeCount];
+        for (int n = 0; n < this.nodeCount; n++) {
+            if (wanted == null || wanted[n]) {
+                nodes[n] = new Node(subgraphs[this.nodeSubgraph[n]], this.nodeNames[n]);
+            }
+        }
+        for (Map.Entry<String, String[]> entry : this.nodeColumns.entrySet()) {
+            String[] column = entry.getValue();
+            for (int n = 0; n < this.nodeCount; n++) {
+                if (column[n] != null && nodes[n] != null) {
+                    nodes[n].setAttribute(entry.getKey(), column[n]);
+                }
+            }
+        }
+
+        String[] keys = this.edgeColumns.get("key");
+        String[] names = this.edgeColumns.get("__nAmE__");
+        Edge[] edges = new Edge[this.edgeCount];
+        for (int e = 0; e < this.edgeCount; e++) {
+            if (nodes[this.edgeTail[e]] == null || nodes[this.edgeHead[e]] == null) {
+                continue;
+            }
+            edges[e] = new Edge(subgraphs[this.edgeSubgraph[e]], nodes[this.edgeTail[e]], getTailPort(e),
+                nodes[this.edgeHead[e]], getHeadPort(e), (keys == null) ? null : keys[e],
+                (names == null) ? null : names[e]);
+        }
+        for (Map.Entry<String, String[]> entry : this.edgeColumns.entrySet()) {
+            String key = entry.getKey();
+            if (key.equals("key") || key.equals("__nAmE__")) {
+                continue;
+            }
+            String[] column = entry.getValue();
+            for (int e = 0; e < this.edgeCount; e++) {
+                if (column[e] != null && edges[e] != null) {
+                    edges[e].setAttribute(key, column[e]);
+                }
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * A parser listener that collects a <code>CompactGraph</code>. Set it on a <code>Parser</code> with
+     * <code>setListener</code> and call <code>build</code> once parsing is complete.
+     */
+    public static class Builder implements GraphParserListener
+    {
+        private static final Attribute[] NO_ATTRIBUTES = new Attribute[0];
+
+        private String name;
+
+        private boolean directed = true;
+
+        private boolean strict = false;
+
+        private int nodeCount = 0;
+
+        private int edgeCount = 0;
+
+        private String[] nodeNames = new String[64];
+
+        private int[] nodeSubgraph = new int[64];
+
+        private final Map<String, Integer> nodeIndex = new HashMap<>();
+
+        private int[] edgeTail = new int[64];
+
+        private int[] edgeHead = new int[64];
+
+        private int[] edgeSubgraph = new int[64];
+
+        private String[] tailPorts = null;
+
+        private String[] headPorts = null;
+
+        private final List<String> subgraphNames = new ArrayList<>();
+
+        private int[] subgraphParent = new int[8];
+
+        private final Map<String, Integer> subgraphIndex = new HashMap<>();
+
+        private final List<Map<String, String>> graphAttributes = new ArrayList<>();
+
+        private final List<Map<String, String>> nodeDefaults = new ArrayList<>();
+
+        private final List<Map<String, String>> edgeDefaults = new ArrayList<>();
+
+        private final Map<String, String[]> nodeColumns = new LinkedHashMap<>();
+
+        private final Map<String, String[]> edgeColumns = new LinkedHashMap<>();
+
+        private int[] open = new int[8];
+
+        private int depth = 0;
+
+        // ids of the elements collected from a live graph
+        private int[] nodeIds = null;
+
+        private int[] edgeIds = null;
+
+        private int[] subgraphIds = null;
+
+        /**
+         * Create the compact graph from what has been collected. The builder should not be used afterwards.
+         *
+         * @return the compact graph
+         * @exception IllegalStateException if no graph has been read
+         */
+        public CompactGraph build()
+        {
+            if (this.subgraphNames.isEmpty()) {
+                throw new IllegalStateException("no graph has been read");
+            }
+            return new CompactGraph(this);
+        }
+
+        @Override
+        public void startGraph(String graphName, boolean isDirected, boolean isStrict)
+        {
+            this.name = graphName;
+            this.directed = isDirected;
+            this.strict = isStrict;
+            this.open[0] = addSubgraph(graphName, -1);
+            this.depth = 1;
+        }
+
+        @Override
+        public void endGraph(String graphName)
+        {
+            this.depth = 0;
+        }
+
+        @Override
+        public void startSubgraph(String subgName, String parent)
+        {
+            Integer index = this.subgraphIndex.get(subgName);
+            int sg = (index == null) ? addSubgraph(subgName, current()) : index.intValue();
+            if (this.depth == this.open.length) {
+                this.open = Arrays.copyOf(this.open, this.depth * 2);
+            }
+            this.open[this.depth++] = sg;
+        }
+
+        @Override
+        public void endSubgraph(String subgName)
+        {
+            if (this.depth > 1) {
+                this.depth--;
+            }
+        }
+
+        @Override
+        public void defaultAttributes(String subgraph, int elementType, Attribute[] attrs)
+        {
+            List<Map<String, String>> defaults;
+            switch (elementType) {
+                case GrappaConstants.NODE:
+                    defaults = this.nodeDefaults;
+                    break;
+                case GrappaConstants.EDGE:
+                    defaults = this.edgeDefaults;
+                    break;
+                default:
+                    defaults = this.graphAttributes;
+                    break;
+            }
+            int sg = current();
+            Map<String, String> map = defaults.get(sg);
+            if (map == null) {
+                defaults.set(sg, map = new LinkedHashMap<>());
+            }
+            for (Attribute attr : attrs) {
+                map.put(attr.getName(), attr.getStringValue());
+            }
+        }
+
+        @Override
+        public void node(String subgraph, String nodeName, Attribute[] attrs)
+        {
+            int node = node(nodeName);
+            for (Attribute attr : attrs) {
+                set(this.nodeColumns, attr.getName(), node, attr.getStringValue(), this.nodeNames.length);
+            }
+        }
+
+        @Override
+        public void edge(String subgraph, String tail, String tailPort, String head, String headPort,
+            Attribute[] attrs)
+        {
+            int t = node(tail);
+            int h = node(head);
+            int edge = this.edgeCount++;
+            if (edge == this.edgeTail.length) {
+                int capacity = edge * 2;
+                this.edgeTail = Arrays.copyOf(this.edgeTail, capacity);
+                this.edgeHead = Arrays.copyOf(this.edgeHead, capacity);
+                this.edgeSubgraph = Arrays.copyOf(this.edgeSubgraph, capacity);
+            }
+            this.edgeTail[edge] = t;
+            this.edgeHead[edge] = h;
+            this.edgeSubgraph[edge] = current();
+            if (tailPort != null) {
+                this.tailPorts = store(this.tailPorts, edge, tailPort, this.edgeTail.length);
+            }
+            if (headPort != null) {
+                this.headPorts = store(this.headPorts, edge, headPort, this.edgeTail.length);
+            }
+            for (Attribute attr : attrs) {
+                set(this.edgeColumns, attr.getName(), edge, attr.getStringValue(), this.edgeTail.length);
+            }
+        }
+
+        // collect a subgraph of a live graph with its nodes and descendents, as the current subgraph
+        private void collectSubgraph(Subgraph subg)
+        {
+            int sg = current();
+            this.subgraphIds = store(this.subgraphIds, sg, subg.getId(), this.subgraphParent.length);
+            collectDefaults(subg, sg);
+            Enumeration<Node> nodes = subg.nodeElements();
+            while (nodes.hasMoreElements()) {
+                Node elem = nodes.nextElement();
+                int node = node(elem.getName());
+                this.nodeIds = store(this.nodeIds, node, elem.getId(), this.nodeNames.length);
+                collectLocal(this.nodeColumns, node, elem, this.nodeNames.length);
+            }
+            Enumeration<Subgraph> subgraphs = subg.subgraphElements();
+            while (subgraphs.hasMoreElements()) {
+                Subgraph child = subgraphs.nextElement();
+                startSubgraph(child.getName(), subg.getName());
+                collectSubgraph(child);
+                endSubgraph(child.getName());
+            }
+        }
+
+        // collect the edges of a subgraph of a live graph and of its descendents, once all nodes are known
+        private void collectEdges(Subgraph subg)
+        {
+            Enumeration<Edge> edges = subg.edgeElements();
+            while (edges.hasMoreElements()) {
+                Edge elem = edges.nextElement();
+                edge(subg.getName(), elem.getTail().getName(), elem.getTailPortId(), elem.getHead().getName(),
+                    elem.getHeadPortId(), NO_ATTRIBUTES);
+                int edge = this.edgeCount - 1;
+                this.edgeIds = store(this.edgeIds, edge, elem.getId(), this.edgeTail.length);
+                collectEdge(edge, elem, this.edgeTail.length);
+            }
+            Enumeration<Subgraph> subgraphs = subg.subgraphElements();
+            while (subgraphs.hasMoreElements()) {
+                Subgraph child = subgraphs.nextElement();
+                startSubgraph(child.getName(), subg.getName());
+                collectEdges(child);
+                endSubgraph(child.getName());
+            }
+        }
+
+        // collect the attributes of a live graph whose subgraphs, nodes and edges are those of the given snapshot
+        private void collectAttributes(Graph graph, CompactGraph structure)
+        {
+            for (int sg = 1; sg < structure.subgraphCount; sg++) {
+                this.graphAttributes.add(null);
+                this.nodeDefaults.add(null);
+                this.edgeDefaults.add(null);
+            }
+            for (int sg = 0; sg < structure.subgraphCount; sg++) {
+                Element subg = graph.findElementById(GrappaConstants.SUBGRAPH, structure.subgraphIds[sg]);
+                collectDefaults((Subgraph) subg, sg);
+            }
+            for (int node = 0; node < structure.nodeCount; node++) {
+                Element elem = graph.findElementById(GrappaConstants.NODE, structure.nodeIds[node]);
+                collectLocal(this.nodeColumns, node, elem, structure.nodeCount);
+            }
+            for (int edge = 0; edge < structure.edgeCount; edge++) {
+                Element elem = graph.findElementById(GrappaConstants.EDGE, structure.edgeIds[edge]);
+                collectEdge(edge, (Edge) elem, structure.edgeCount);
+            }
+        }
+
+        private void collectDefaults(Subgraph subg, int sg)
+        {
+            this.graphAttributes.set(sg, pairs(subg, GrappaConstants.SUBGRAPH, subg.getLocalAttributePairs()));
+            this.nodeDefaults.set(sg, pairs(subg, GrappaConstants.NODE, subg.getNodeAttributePairs()));
+            this.edgeDefaults.set(sg, pairs(subg, GrappaConstants.EDGE, subg.getEdgeAttributePairs()));
+        }
+
+        // the key and name go along with the attributes, as they do in the output of filterGraph
+        private void collectEdge(int edge, Edge elem, int capacity)
+        {
+            collectLocal(this.edgeColumns, edge, elem, capacity);
+            set(this.edgeColumns, "key", edge, elem.getKey(), capacity);
+            set(this.edgeColumns, "__nAmE__", edge, elem.getName(), capacity);
+        }
+
+        private static void collectLocal(Map<String, String[]> columns, int index, Element elem, int capacity)
+        {
+            if (elem.attributes == null) {
+                return;
+            }
+            for (Attribute attr : elem.attributes.values()) {
+                set(columns, attr.getName(), index, attr.getStringValue(), capacity);
+            }
+        }
+
+        // the attributes that differ from what the subgraph inherits (its tables also hold the inherited ones)
+        private static Map<String, String> pairs(Subgraph subg, int type, Enumeration<Attribute> attrs)
+        {
+            Map<String, String> map = null;
+            while (attrs.hasMoreElements()) {
+                Attribute attr = attrs.nextElement();
+                if (attr.equalsValue(subg.getParentDefault(type, attr.getName()))) {
+                    continue;
+                }
+                if (map == null) {
+                    map = new LinkedHashMap<>();
+                }
+                map.put(attr.getName(), attr.getStringValue());
+            }
+            return map;
+        }
+
+        private int current()
+        {
+            return this.open[Math.max(this.depth - 1, 0)];
+        }
+
+        private int addSubgraph(String subgName, int parent)
+        {
+            int sg = this.subgraphNames.size();
+            this.subgraphNames.add(subgName);
+            this.subgraphIndex.put(subgName, Integer.valueOf(sg));
+            if (sg == this.subgraphParent.length) {
+                this.subgraphParent = Arrays.copyOf(this.subgraphParent, sg * 2);
+            }
+            this.subgraphParent[sg] = parent;
+            this.graphAttributes.add(null);
+            this.nodeDefaults.add(null);
+            this.edgeDefaults.add(null);
+            return sg;
+        }
+
+        // get the index of a node, adding it to the current subgraph if it is new
+        private int node(String nodeName)
+        {
+            Integer index = this.nodeIndex.get(nodeName);
+            if (index != null) {
+                return index.intValue();
+            }
+            int node = this.nodeCount++;
+            if (node == this.nodeNames.length) {
+                this.nodeNames = Arrays.copyOf(this.nodeNames, node * 2);
+                this.nodeSubgraph = Arrays.copyOf(this.nodeSubgraph, node * 2);
+            }
+            this.nodeNames[node] = nodeName;
+            this.nodeSubgraph[node] = current();
+            this.nodeIndex.put(nodeName, Integer.valueOf(node));
+            return node;
+        }
+
+        private static void set(Map<String, String[]> columns, String key, int index, String value, int capacity)
+        {
+            String[] column = columns.get(key);
+            String[] stored = store(column, index, value, capacity);
+            if (stored != column) {
+                columns.put(key, stored);
+            }
+        }
+
+        private static String[] store(String[] column, int index, String value, int capacity)
+        {
+            if (column == null) {
+                column = new String[capacity];
+            } else if (index >= column.length) {
+                column = Arrays.copyOf(column, capacity);
+            }
+            column[index] = value;
+            return column;
+        }
+
+        private static int[] store(int[] ids, int index, int id, int capacity)
+        {
+            if (ids == null) {
+                ids = new int[capacity];
+            } else if (index >= ids.length) {
+                ids = Arrays.copyOf(ids, capacity);
+            }
+            ids[index] = id;
+            return ids;
+        }
+    }
+}
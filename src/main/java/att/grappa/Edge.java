@@ -13,7 +13,9 @@
 import java.io.PrintWriter;
 import java.util.Collections;
 import java.util.Enumeration;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Set;
 
 /**
  * This class describes an edge.
@@ -44,6 +46,14 @@ public class Edge extends Element
 
     private String key = null;
 
+    /*
+     * positions at which the edge was added to the in-edge array of the head node and the out-edge array of the tail
+     * node, or -1; removals of earlier edges may have moved it down since (maintained by Node)
+     */
+    int inIndex = -1;
+
+    int outIndex = -1;
+
     /*
      * direction info (adjusted here and by GrappaNexus)
      */
@@ -124,7 +134,7 @@ public Edge(Subgraph subg, Node tail, Node head, String name) throws RuntimeExce
     public Edge(Subgraph subg, Node tail, String tailPort, Node head, String headPort, String key, String name)
         throws RuntimeException
     {
-        super(GrappaConstants.EDGE, subg);
+        super(GrappaConstants.EDGE, subg, SHARED_ATTRS_OF_INTEREST);
         boolean directed = subg.getGraph().isDirected();
 
         if (directed) {
@@ -185,19 +195,7 @@ public Edge(Subgraph subg, Node tail, String tailPort, Node head, String headPor
         } else {
             setName();
         }
-        if (key == null) {
-            if (headPort != null && tailPort != null) {
-                this.key = tailPort + "::" + headPort;
-            } else if (headPort != null) {
-                this.key = "::" + headPort;
-            } else if (tailPort != null) {
-                this.key = tailPort + "::";
-            } else {
-                this.key = name;
-            }
-        } else {
-            this.key = key;
-        }
+        this.key = (key == null) ? defaultKey(tailPort, headPort, name) : key;
         if (this.key != null) {
             if (findEdgeByKey(this.tailNode, this.headNode, this.key) != null) {
                 subg.removeEdge(this.name);
@@ -207,23 +205,64 @@ public Edge(Subgraph subg, Node tail, String tailPort, Node head, String headPor
         }
         this.tailNode.addEdge(this, false);
         this.headNode.addEdge(this, true);
+    }
 
-        edgeAttrsOfInterest();
+    /**
+     * Constructor used by <code>GraphBuilder</code> for an edge whose ends, key and name have already been checked
+     * against the graph. The ends must already be ordered as the graph requires (by id when undirected).
+     *
+     * @param subg the parent subgraph.
+     * @param tail node anchoring the tail of the edge.
+     * @param tailPort the port to use within the tail node.
+     * @param head node anchoring the head of the edge.
+     * @param headPort the port to use within the head node.
+     * @param key identifier distinguishing edges between the same nodes, or null
+     * @param name a unique name, or null to generate one
+     * @param attrsOfInterest the names of the attributes of interest, shared with other edges
+     */
+    Edge(Subgraph subg, Node tail, String tailPort, Node head, String headPort, String key, String name,
+        Set<String> attrsOfInterest)
+    {
+        super(GrappaConstants.EDGE, subg, attrsOfInterest);
+        this.direction = subg.getGraph().isDirected() ? GrappaLine.TAIL_ARROW_EDGE : GrappaLine.NONE_ARROW_EDGE;
+        this.tailNode = tail;
+        this.tailPortId = tailPort;
+        this.headNode = head;
+        this.headPortId = headPort;
+        if (name != null) {
+            this.name = name;
+            subg.addEdge(this);
+            if (key == null) {
+                key = name;
+            }
+        } else {
+            setName();
+        }
+        this.key = (key == null) ? defaultKey(tailPort, headPort, name) : key;
+        this.tailNode.addEdge(this, false);
+        this.headNode.addEdge(this, true);
     }
 
-    // a listing of the attributes of interest for Edges
-    private void edgeAttrsOfInterest()
+    // the key of an edge created without one
+    static String defaultKey(String tailPort, String headPort, String name)
     {
-        attrOfInterest(POS_ATTR);
-        attrOfInterest(DIR_ATTR);
-        attrOfInterest(LP_ATTR);
-        attrOfInterest(HEADLABEL_ATTR);
-        attrOfInterest(HEADLP_ATTR);
-        attrOfInterest(TAILLABEL_ATTR);
-        attrOfInterest(TAILLP_ATTR);
-        attrOfInterest(STYLE_ATTR);
+        if (headPort != null && tailPort != null) {
+            return tailPort + "::" + headPort;
+        } else if (headPort != null) {
+            return "::" + headPort;
+        } else if (tailPort != null) {
+            return tailPort + "::";
+        }
+        return name;
     }
 
+    // a listing of the attributes of interest for Edges
+    static final String[] EDGE_ATTRS_OF_INTEREST = { POS_ATTR, DIR_ATTR, LP_ATTR, HEADLABEL_ATTR, HEADLP_ATTR,
+        TAILLABEL_ATTR, TAILLP_ATTR, STYLE_ATTR };
+
+    // the attributes of interest of an edge, shared by all edges until changed for one of them
+    static final Set<String> SHARED_ATTRS_OF_INTEREST = sharedAttrsOfInterest(EDGE_ATTRS_OF_INTEREST);
+
     /**
      * Returns the edge with the given tail node, head node and key.
      *
@@ -467,17 +506,27 @@ static class Enumerator implements Enumeration<Edge>
 
         Edge next = null;
 
-        Enumeration<Edge> outEdges = null;
+        // edges of node1 still to visit, from the last one down, as in Node.Enumerator
+        int outCnt = 0;
+
+        int inCnt = 0;
+
+        // when node2 is given and the edges of node1 are grouped by their other end, the edges between both nodes
+        List<Edge> outList = null;
 
-        Enumeration<Edge> inEdges = null;
+        List<Edge> inList = null;
 
         Enumerator(Node node1, Node node2)
         {
             this.node1 = node1;
             this.node2 = node2;
             if (node1 != null) {
-                this.outEdges = node1.outEdgeElements();
-                this.inEdges = node1.inEdgeElements();
+                if (node2 != null) {
+                    this.outList = node1.indexedOutEdges(node2);
+                    this.inList = node1.indexedInEdges(node2);
+                }
+                this.outCnt = (this.outList == null) ? node1.getOutEdgeCount() : this.outList.size();
+                this.inCnt = (this.inList == null) ? node1.getInEdgeCount() : this.inList.size();
                 this.next = getNext();
             }
         }
@@ -485,23 +534,33 @@ static class Enumerator implements Enumeration<Edge>
         private Edge getNext()
         {
             Edge tmpEdge = null;
-            if (this.outEdges != null) {
-                while (this.outEdges.hasMoreElements()) {
-                    tmpEdge = this.outEdges.nextElement();
+            if (this.outList != null) {
+                this.outCnt = Math.min(this.outCnt, this.outList.size());
+                if (this.outCnt > 0) {
+                    return this.outList.get(--this.outCnt);
+                }
+            } else {
+                this.outCnt = Math.min(this.outCnt, this.node1.getOutEdgeCount());
+                while (this.outCnt > 0) {
+                    tmpEdge = this.node1.getOutEdge(--this.outCnt);
                     if (this.node2 == null || tmpEdge.getHead() == this.node2) {
                         return tmpEdge;
                     }
                 }
-                this.outEdges = null;
             }
-            if (this.inEdges != null) {
-                while (this.inEdges.hasMoreElements()) {
-                    tmpEdge = this.inEdges.nextElement();
+            if (this.inList != null) {
+                this.inCnt = Math.min(this.inCnt, this.inList.size());
+                if (this.inCnt > 0) {
+                    return this.inList.get(--this.inCnt);
+                }
+            } else {
+                this.inCnt = Math.min(this.inCnt, this.node1.getInEdgeCount());
+                while (this.inCnt > 0) {
+                    tmpEdge = this.node1.getInEdge(--this.inCnt);
                     if (this.node2 == null || tmpEdge.getTail() == this.node2) {
                         return tmpEdge;
                     }
                 }
-                this.inEdges = null;
             }
             return null;
         }
@@ -11,6 +11,7 @@
 package att.grappa;
 
 import java.io.PrintWriter;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
@@ -104,11 +105,30 @@ public abstract class Element implements GrappaConstants
     String name = null;
 
     // attributes
-    Map<String, Attribute> attributes = null;
+    AttributeMap attributes = null;
+
+    // largest size of the table of resolved attributes; the attributes of keys given no slot are not remembered
+    private static final int RESOLVED_LIMIT = 32;
+
+    // the slot in the tables of resolved attributes of each key, plus one (zero for a key without a slot yet); slots
+    // are handed out in the order keys are first looked up, so the tables only need room for the keys actually used
+    private static volatile int[] resolvedSlots = new int[STANDARD_KEY_COUNT];
+
+    private static int resolvedSlotCount = 0;
+
+    // attributes found by getAttribute, local or inherited, indexed by the slot of their key; a slot holds the
+    // Attribute found, or the registered name itself when none was found, and the table grows as slots are handed out
+    private Object[] resolved = null;
+
+    // the defaults version of the graph when the table was started
+    private long resolvedVersion;
 
     // attributes
     private Set<String> attrsOfInterest = null;
 
+    // whether attrsOfInterest is shared with other elements, and must be copied before it is changed
+    private boolean attrsOfInterestShared = false;
+
     // the Shape for drawing
     GrappaNexus grappaNexus = null;
 
@@ -164,15 +184,48 @@ protected Element(int type, Subgraph subg)
         elementAttrsOfInterest();
     }
 
+    /**
+     * Element constructor used by nodes and edges, which give all the elements of one type the same set of attributes
+     * of interest rather than a set each. The set is copied the first time it is changed for this element.
+     *
+     * @param type the type of the element (Grappa.NODE, Grappa.EDGE or Grappa.SUBGRAPH).
+     * @param subg the subgraph containing this element.
+     * @param attrsOfInterest the names of the attributes of interest
+     */
+    Element(int type, Subgraph subg, Set<String> attrsOfInterest)
+    {
+        setSubgraph(subg);
+        setGraph(subg.getGraph());
+        setIdKey(type);
+        getGraph().addIdMapping(this);
+
+        this.attrsOfInterest = attrsOfInterest;
+        this.attrsOfInterestShared = true;
+    }
+
     // set the attributes of interest to all elements
+    static final String[] ELEMENT_ATTRS_OF_INTEREST = { COLOR_ATTR, FONTCOLOR_ATTR, FONTNAME_ATTR, FONTSIZE_ATTR,
+        FONTSTYLE_ATTR, LABEL_ATTR };
+
     private void elementAttrsOfInterest()
     {
-        attrOfInterest(COLOR_ATTR);
-        attrOfInterest(FONTCOLOR_ATTR);
-        attrOfInterest(FONTNAME_ATTR);
-        attrOfInterest(FONTSIZE_ATTR);
-        attrOfInterest(FONTSTYLE_ATTR);
-        attrOfInterest(LABEL_ATTR);
+        for (String attrName : ELEMENT_ATTRS_OF_INTEREST) {
+            attrOfInterest(attrName);
+        }
+    }
+
+    /**
+     * Make the unmodifiable set of attributes of interest shared by all the elements of a type.
+     *
+     * @param typeNames the names of interest to the type, besides those of interest to all elements
+     * @return the set of names
+     */
+    static Set<String> sharedAttrsOfInterest(String[] typeNames)
+    {
+        Set<String> names = new HashSet<>();
+        Collections.addAll(names, ELEMENT_ATTRS_OF_INTEREST);
+        Collections.addAll(names, typeNames);
+        return Collections.unmodifiableSet(names);
     }
 
     /**
@@ -306,12 +359,15 @@ protected void attrOfInterest(String name)
         }
         if (this.attrsOfInterest == null) {
             this.attrsOfInterest = new HashSet<String>();
+        } else if (this.attrsOfInterestShared) {
+            this.attrsOfInterest = new HashSet<String>(this.attrsOfInterest);
+            this.attrsOfInterestShared = false;
         }
         this.attrsOfInterest.add(name);
         if (this.grappaNexus != null) {
             Attribute attr = getAttribute(name);
             if (attr != null) {
-                attr.addObserver(this.grappaNexus);
+                attr.addListener(this.grappaNexus);
             }
         }
     }
@@ -329,9 +385,13 @@ protected void attrNotOfInterest(String name)
         if (this.grappaNexus != null) {
             Attribute attr = getAttribute(name);
             if (attr != null) {
-                attr.deleteObserver(this.grappaNexus);
+                attr.removeListener(this.grappaNexus);
             }
         }
+        if (this.attrsOfInterestShared) {
+            this.attrsOfInterest = new HashSet<String>(this.attrsOfInterest);
+            this.attrsOfInterestShared = false;
+        }
         this.attrsOfInterest.remove(name);
     }
 
@@ -377,6 +437,21 @@ public Object setAttribute(Attribute attr)
         return setAttribute(attr.getName(), attr.getValue());
     }
 
+    /**
+     * Sets or creates an attribute for this element from its numeric key and value. If the value argument is null,
+     * then the attribute will be removed from the element.
+     *
+     * @param key the numeric key of the attribute name
+     * @param value the attribute value
+     * @return the value of the (local) attribute previously stored under the same name
+     * @exception IllegalArgumentException if no attribute name has the key
+     * @see AttributeKey
+     */
+    public Object setAttribute(int key, Object value) throws IllegalArgumentException
+    {
+        return setAttribute(AttributeKey.getName(key), value);
+    }
+
     /**
      * Sets or creates an attribute for this element from the supplied arguments. The storage key is the attribute name.
      * If the value argument is null, then the attribute will be removed from the element.
@@ -387,8 +462,9 @@ public Object setAttribute(Attribute attr)
      */
     public Object setAttribute(String name, Object value)
     {
+        noteAttributeChange();
         if (this.attributes == null) {
-            this.attributes = new Hashtable<>();
+            this.attributes = new AttributeMap();
         }
         if (name == null) {
             throw new IllegalArgumentException("cannot set an attribute using a null name");
@@ -403,9 +479,9 @@ public Object setAttribute(String name, Object value)
                 && Attribute.attributeType(getType(), name) != STRING_TYPE) {
                 return null;
             }
-            this.attributes.put(name, (crntAttr = new Attribute(getType(), name, value)));
+            this.attributes.put(name, (crntAttr = newAttribute(name, value)));
             if (this.grappaNexus != null && isOfInterest(name)) {
-                crntAttr.addObserver(this.grappaNexus);
+                crntAttr.addListener(this.grappaNexus);
             }
         } else {
             oldValue = crntAttr.getValue();
@@ -422,12 +498,106 @@ public Object setAttribute(String name, Object value)
                 crntAttr.setValue(value);
             }
         }
-        if (crntAttr.hasChanged()) {
-            crntAttr.notifyObservers(new Long(System.currentTimeMillis()));
-        }
+        notifyChange(crntAttr, null);
         return oldValue;
     }
 
+    /**
+     * Sets an attribute of an element that has just been created in bulk, and so has no observers yet, without the
+     * checks and notifications done by <code>setAttribute</code>.
+     *
+     * @param name the attribute name
+     * @param value the attribute value, which must not be null or blank
+     * @see GraphBuilder
+     */
+    void initAttribute(String name, Object value)
+    {
+        noteAttributeChange();
+        if (this.attributes == null) {
+            this.attributes = new AttributeMap();
+        }
+        Attribute attr = newAttribute(name, value);
+        attr.clearChanged();
+        this.attributes.put(name, attr);
+    }
+
+    /**
+     * Let the graph know that an attribute value of this element may be changing, so that its next snapshot picks up
+     * the change.
+     *
+     * @see Graph#snapshot()
+     */
+    void noteAttributeChange()
+    {
+        this.resolved = null;
+        Graph graph = getGraph();
+        if (graph != null) {
+            graph.countAttributeChange();
+        }
+    }
+
+    /**
+     * Let the graph know that a default set in this subgraph may be changing, so that the attributes cached by its
+     * elements are resolved again and its next snapshot picks up the change.
+     *
+     * @see Graph#snapshot()
+     */
+    void noteDefaultChange()
+    {
+        Graph graph = getGraph();
+        if (graph != null) {
+            graph.countDefaultChange();
+        }
+    }
+
+    /**
+     * Let the graph know that a subgraph, node or edge is being added or removed, so that its next snapshot picks up
+     * the change.
+     *
+     * @see Graph#snapshot()
+     */
+    void noteStructureChange()
+    {
+        Graph graph = getGraph();
+        if (graph != null) {
+            graph.countStructureChange();
+        }
+    }
+
+    /**
+     * Tell the listeners of an attribute of this element that it has changed, if it has, or queue the change when the
+     * graph holds change notifications.
+     *
+     * @param attr the attribute
+     * @param replacement the attribute now taking its place, or null
+     * @see Graph#holdChangeNotifications()
+     */
+    void notifyChange(Attribute attr, Attribute replacement)
+    {
+        if (!attr.hasChanged()) {
+            return;
+        }
+        attr.clearChanged();
+        if (attr.countListeners() == 0) {
+            return;
+        }
+        long when = System.currentTimeMillis();
+        Graph graph = getGraph();
+        if (graph == null || !graph.queueChange(attr, replacement, when)) {
+            attr.fireChange(replacement, when);
+        }
+    }
+
+    private Attribute newAttribute(String name, Object value)
+    {
+        Attribute attr = new Attribute(getType(), name, value);
+        OffHeapAttributeStore store = (getGraph() == null) ? null : getGraph().getAttributeStore();
+        if (store != null) {
+            attr.attachStore(store);
+        }
+        return attr;
+    }
+
     /*
      * Removes the named attribute from the (local) attribute table and applies the default attribute (if any)
      * @param name the name of the attribute to be removed.
@@ -446,11 +616,12 @@ private Attribute removeAttribute(String name)
         if (attr == null) {
             return dfltAttr;
         }
+        attr.detachStore();
         if (dfltAttr == null) {
             attr.setValue("");
         }
         attr.setChanged();
-        attr.notifyObservers(new Object[] { dfltAttr, new Long(System.currentTimeMillis()) });
+        notifyChange(attr, dfltAttr);
         return dfltAttr;
     }
 
@@ -631,6 +802,21 @@ public Attribute getLocalAttribute(String key)
         return this.attributes.get(key);
     }
 
+    /**
+     * Get the local attribute of this element for the specified numeric key.
+     *
+     * @param key the numeric key of the attribute name
+     * @return the local Attribute object matching the key or null.
+     * @see AttributeKey
+     */
+    public Attribute getLocalAttribute(int key)
+    {
+        if (this.attributes == null) {
+            return (null);
+        }
+        return this.attributes.get(key);
+    }
+
     /**
      * Get only the corresponding local attribute for the specified key if it is not inherited from the parent,
      * otherwise return null. Sometimes a local attribute will be set, but it will be a pointer to the parent value.
@@ -733,11 +919,90 @@ public Attribute getDefaultAttribute(String key)
      * @return the corresponding Attribute object or null.
      */
     public Attribute getAttribute(String key)
+    {
+        int code = AttributeKey.findKey(key);
+        if (code < 0) {
+            // no attribute has that name
+            return null;
+        }
+        return getAttribute(code);
+    }
+
+    /**
+     * Get the Attribute of this Element for the specified numeric key. Search first local, then default attributes
+     * until a match is found. Attributes found are remembered until the defaults that apply to this element or its own
+     * attributes change, so that repeated lookups take a single array access.
+     *
+     * @param key the numeric key of the attribute name
+     * @return the corresponding Attribute object or null.
+     * @exception IllegalArgumentException if no attribute name has the key
+     * @see AttributeKey
+     */
+    public Attribute getAttribute(int key) throws IllegalArgumentException
+    {
+        String name = AttributeKey.getName(key);
+        Graph graph = getGraph();
+        if (graph == null) {
+            return resolveAttribute(key, name);
+        }
+        int[] slots = resolvedSlots;
+        int slot = (key < slots.length) ? slots[key] - 1 : -1;
+        if (slot < 0 && (slot = resolvedSlot(key)) < 0) {
+            return resolveAttribute(key, name);
+        }
+        Object[] table = this.resolved;
+        long version = graph.getDefaultsVersion();
+        if (table != null && this.resolvedVersion == version) {
+            if (slot < table.length) {
+                // a slot only ever holds the name or an attribute of its own key
+                Object entry = table[slot];
+                if (entry == name) {
+                    return null;
+                } else if (entry != null) {
+                    return (Attribute) entry;
+                }
+            }
+        } else {
+            table = null;
+        }
+        Attribute attr = resolveAttribute(key, name);
+        if (table == null || slot >= table.length) {
+            // make room for every slot handed out so far, as the keys in use are usually looked up on every element
+            int size = Math.max(slot + 1, resolvedSlotCount);
+            table = (table == null) ? new Object[size] : Arrays.copyOf(table, size);
+            table[slot] = (attr == null) ? name : attr;
+            this.resolvedVersion = version;
+            this.resolved = table;
+        } else {
+            table[slot] = (attr == null) ? name : attr;
+        }
+        return attr;
+    }
+
+    // the slot of a key in the tables of resolved attributes, handing out the next one if it has none
+    private static synchronized int resolvedSlot(int key)
+    {
+        int[] slots = resolvedSlots;
+        if (key < slots.length && slots[key] > 0) {
+            return slots[key] - 1;
+        }
+        if (resolvedSlotCount == RESOLVED_LIMIT) {
+            return -1;
+        }
+        if (key >= slots.length) {
+            slots = Arrays.copyOf(slots, Math.max(key + 1, slots.length * 2));
+        }
+        slots[key] = ++resolvedSlotCount;
+        resolvedSlots = slots;
+        return resolvedSlotCount - 1;
+    }
+
+    private Attribute resolveAttribute(int key, String name)
     {
         Attribute attr = null;
 
         if ((attr = getLocalAttribute(key)) == null) {
-            attr = getDefaultAttribute(key);
+            attr = getDefaultAttribute(name);
         }
         return (attr);
     }
@@ -760,6 +1025,26 @@ public Object getAttributeValue(String key)
         return (value);
     }
 
+    /**
+     * Get the Attribute value of this Element for the specified numeric key. Search first local, then default
+     * attributes until a match is found.
+     *
+     * @param key the numeric key of the attribute name
+     * @return the corresponding attribute value or null.
+     * @exception IllegalArgumentException if no attribute name has the key
+     * @see AttributeKey
+     */
+    public Object getAttributeValue(int key) throws IllegalArgumentException
+    {
+        Object value = null;
+
+        Attribute attr = getAttribute(key);
+        if (attr != null) {
+            value = attr.getValue();
+        }
+        return (value);
+    }
+
     /**
      * Checks to see if this element has an Attribute matching the key
      *
@@ -828,6 +1113,8 @@ public void setSubgraph(Subgraph subgraph)
             }
         }
         if (this.subgraph != subgraph) {
+            // the defaults that apply to this element come from its subgraph
+            this.resolved = null;
             if (this.subgraph != null && this.subgraph.grappaNexus != null) {
                 this.subgraph.clearBBox();
             }
@@ -1111,9 +1398,12 @@ public final boolean delete()
             return (false);
         }
         String name = getName();
-        if (this.attributes != null && this.grappaNexus != null) {
+        if (this.attributes != null) {
             for (Attribute attribute : this.attributes.values()) {
-                attribute.deleteObserver(this.grappaNexus);
+                if (this.grappaNexus != null) {
+                    attribute.removeListener(this.grappaNexus);
+                }
+                attribute.detachStore();
             }
         }
         Element elem = null;
@@ -1495,7 +1785,7 @@ public void buildShape()
             while (enm.hasMoreElements()) {
                 attr = getAttribute(enm.nextElement());
                 if (attr != null) {
-                    attr.addObserver(this.grappaNexus);
+                    attr.addListener(this.grappaNexus);
                 }
             }
         }
@@ -1587,8 +1877,9 @@ private static void doBDFS(int type, int depth, long stamp, int level, Vector<El
                 // stack.addElement(elem);
 
                 if (depth < 0 || level <= depth) {
-                    for (Enumeration<Edge> edges = ((Node) elem).outEdgeElements(); edges.hasMoreElements();) {
-                        edge = edges.nextElement();
+                    Node node = (Node) elem;
+                    for (int j = node.getOutEdgeCount() - 1; j >= 0; j--) {
+                        edge = node.getOutEdge(j);
                         if (edge.goesForward()) {
                             if (edge.getHead().visastamp != stamp) {
                                 input.addElement(edge.getHead());
@@ -1596,8 +1887,8 @@ private static void doBDFS(int type, int depth, long stamp, int level, Vector<El
                             }
                         }
                     }
-                    for (Enumeration<Edge> edges = ((Node) elem).inEdgeElements(); edges.hasMoreElements();) {
-                        edge = edges.nextElement();
+                    for (int j = node.getInEdgeCount() - 1; j >= 0; j--) {
+                        edge = node.getInEdge(j);
                         if (edge.goesReverse()) {
                             if (edge.getTail().visastamp != stamp) {
                                 input.addElement(edge.getTail());
@@ -1611,52 +1902,13 @@ private static void doBDFS(int type, int depth, long stamp, int level, Vector<El
 
                 // stack.addElement(elem);
                 Edge ee = (Edge) elem;
-                Enumeration<Edge> edges;
 
                 if (depth < 0 || level <= depth) {
                     if (ee.goesForward()) {
-                        edges = ee.getHead().outEdgeElements();
-                        while (edges.hasMoreElements()) {
-                            edge = edges.nextElement();
-                            if (edge.goesForward()) {
-                                if (edge.visastamp != stamp) {
-                                    input.addElement(edge);
-                                    edge.visastamp = stamp;
-                                }
-                            }
-                        }
-                        edges = ee.getHead().inEdgeElements();
-                        while (edges.hasMoreElements()) {
-                            edge = edges.nextElement();
-                            if (edge.goesReverse()) {
-                                if (edge.visastamp != stamp) {
-                                    input.addElement(edge);
-                                    edge.visastamp = stamp;
-                                }
-                            }
-                        }
+                        addEdgeNeighbors(ee.getHead(), stamp, input);
                     }
                     if (ee.goesReverse()) {
-                        edges = ee.getTail().outEdgeElements();
-                        while (edges.hasMoreElements()) {
-                            edge = edges.nextElement();
-                            if (edge.goesForward()) {
-                                if (edge.visastamp != stamp) {
-                                    input.addElement(edge);
-                                    edge.visastamp = stamp;
-                                }
-                            }
-                        }
-                        edges = ee.getTail().inEdgeElements();
-                        while (edges.hasMoreElements()) {
-                            edge = edges.nextElement();
-                            if (edge.goesReverse()) {
-                                if (edge.visastamp != stamp) {
-                                    input.addElement(edge);
-                                    edge.visastamp = stamp;
-                                }
-                            }
-                        }
+                        addEdgeNeighbors(ee.getTail(), stamp, input);
                     }
                 }
             }
@@ -1667,6 +1919,30 @@ private static void doBDFS(int type, int depth, long stamp, int level, Vector<El
         }
     }
 
+    // add the unvisited edges leading on from the given node
+    private static void addEdgeNeighbors(Node node, long stamp, Vector<Element> input)
+    {
+        Edge edge;
+        for (int j = node.getOutEdgeCount() - 1; j >= 0; j--) {
+            edge = node.getOutEdge(j);
+            if (edge.goesForward()) {
+                if (edge.visastamp != stamp) {
+                    input.addElement(edge);
+                    edge.visastamp = stamp;
+                }
+            }
+        }
+        for (int j = node.getInEdgeCount() - 1; j >= 0; j--) {
+            edge = node.getInEdge(j);
+            if (edge.goesReverse()) {
+                if (edge.visastamp != stamp) {
+                    input.addElement(edge);
+                    edge.visastamp = stamp;
+                }
+            }
+        }
+    }
+
     //
     // Start PatchWork stuff
     //
@@ -13,6 +13,8 @@
 import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.io.Writer;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.ConcurrentModificationException;
 import java.util.Enumeration;
@@ -92,7 +94,38 @@ public class Graph extends Subgraph
     private boolean strict = false;
 
     // for mapping id to an element
-    Hashtable<Long, Element> id2element = null;
+    IdElementMap id2element = null;
+
+    // off-heap storage for numeric element attributes, when enabled
+    private OffHeapAttributeStore attributeStore = null;
+
+    // counts of changes to the subgraphs, nodes and edges, and to attribute values, to tell when a snapshot is stale
+    private long structureVersion;
+
+    private long attributeVersion;
+    // count of changes to the defaults set in subgraphs, which can change what elements inherit
+    // count of changes to defaults and of elements moving between subgraphs, which can change what an element inherits
+    private long defaultsVersion;
+
+    // the latest snapshot, while some reader still holds it, and the counts it was taken at
+    private WeakReference<CompactGraph> snapshot = null;
+
+    private long snapshotStructureVersion;
+
+    private long snapshotAttributeVersion;
+
+    // how many times change notifications are held, and the changes held meanwhile
+    private int holdCount = 0;
+
+    private AttributeChangeQueue heldChanges = null;
+
+    // how many updates are in progress, whether one was begun while changes are held, and the GrappaNexus objects to
+    // rebuild while the changes of an update are being committed
+    private int updateCount = 0;
+
+    private boolean rebuildOnce = false;
+
+    private List<GrappaNexus> pendingRebuilds = null;
 
     // Grappa global attributes (apply to all elements)
     private Hashtable<String, Attribute> grattributes = null;
@@ -205,6 +238,10 @@ private void initialize(String graphName)
         if (this.id2element != null) {
             this.id2element.clear();
         }
+        if (this.attributeStore != null) {
+            // start afresh, so that the space used by the previous elements is released
+            this.attributeStore = new OffHeapAttributeStore();
+        }
 
         setGraph(this);
         setSubgraph(null);
@@ -551,9 +588,9 @@ Element addIdMapping(Element elem)
             return null;
         }
         if (this.id2element == null) {
-            this.id2element = new Hashtable<>();
+            this.id2element = new IdElementMap();
         }
-        return this.id2element.put(elem.getIdKey(), elem);
+        return this.id2element.put(elem.getIdKey().longValue(), elem);
     }
 
     /**
@@ -568,6 +605,20 @@ Element addIdMapping(Element elem)
      * @see GrappaConstants#SUBGRAPH
      */
     static Long idMapKey(int type, int id) throws IllegalArgumentException
+    {
+        return Long.valueOf(idMapValue(type, id));
+    }
+
+    /**
+     * Creates the value of an id key given a type and id number, without boxing it.
+     *
+     * @param type one of Grappa.NODE, Grappa.EDGE or Grappa.SUBGRAPH
+     * @param id an id number
+     * @exception IllegalArgumentException whenever the specified type is not valid
+     * @return the value of the idKey for an element
+     * @see Graph#idMapKey(int, int)
+     */
+    static long idMapValue(int type, int id) throws IllegalArgumentException
     {
         long value = (id);
         int tval = (type & (GrappaConstants.NODE | GrappaConstants.EDGE | GrappaConstants.SUBGRAPH));
@@ -576,7 +627,7 @@ static Long idMapKey(int type, int id) throws IllegalArgumentException
         }
         value = (value << GrappaConstants.TYPES_SHIFT)
             | (type & (GrappaConstants.NODE | GrappaConstants.EDGE | GrappaConstants.SUBGRAPH));
-        return new Long(value);
+        return value;
     }
 
     /**
@@ -616,6 +667,20 @@ static int idKeyId(Long idKey)
      * @return the Element object matching the id key or null
      */
     Element element4Id(Long idKey)
+    {
+        if (idKey == null) {
+            return null;
+        }
+        return element4Id(idKey.longValue());
+    }
+
+    /**
+     * Get the element associated with an id key value
+     *
+     * @param idKey the value of the id key of the element to be located
+     * @return the Element object matching the id key or null
+     */
+    Element element4Id(long idKey)
     {
         if (this.id2element == null) {
             return null;
@@ -623,6 +688,20 @@ Element element4Id(Long idKey)
         return this.id2element.get(idKey);
     }
 
+    /**
+     * Get the element of this graph with the given type and id number.
+     *
+     * @param type one of Grappa.NODE, Grappa.EDGE or Grappa.SUBGRAPH
+     * @param id the id number of the element, as returned by <code>getId()</code>
+     * @return the Element object matching the type and id or null
+     * @exception IllegalArgumentException whenever the specified type is not valid
+     * @see Element#getId()
+     */
+    public Element findElementById(int type, int id) throws IllegalArgumentException
+    {
+        return element4Id(idMapValue(type, id));
+    }
+
     /**
      * Remove id2element dictionary element
      *
@@ -631,7 +710,7 @@ Element element4Id(Long idKey)
     void removeIdMapping(Element elem)
     {
         if (this.id2element != null && elem != null) {
-            this.id2element.remove(elem.getIdKey());
+            this.id2element.remove(elem.getIdKey().longValue());
         }
     }
 
@@ -823,6 +902,275 @@ public void reset(String graphName, boolean directed, boolean strict)
         this.strict = strict;
     }
 
+    /**
+     * Set whether the numeric and geometric attributes of the elements of this graph (such as <code>pos</code>,
+     * <code>width</code>, <code>height</code> and <code>bb</code>) are stored outside of the Java heap. This reduces
+     * the number of objects the garbage collector has to trace in very large graphs, at the cost of building a new
+     * value object on every read: objects returned by <code>getAttributeValue</code> are then copies, and changing them
+     * does not change the attribute. Values given as strings keep their string form exactly, and are only converted the
+     * first time their typed value is read.
+     * <p>
+     * The setting applies to attributes created after the call, and is kept when the graph is reset; default
+     * attributes of subgraphs always stay on the heap. Turning it off brings the stored values back on the heap.
+     * </p>
+     *
+     * @param mode true to store numeric attributes off-heap
+     * @return previous value
+     */
+    public boolean setOffHeapAttributes(boolean mode)
+    {
+        boolean wasMode = (this.attributeStore != null);
+        if (mode && !wasMode) {
+            this.attributeStore = new OffHeapAttributeStore();
+        } else if (!mode && wasMode) {
+            this.attributeStore = null;
+            GraphEnumeration enm = elements();
+            Element elem;
+            while (enm.hasMoreElements()) {
+                elem = enm.nextGraphElement();
+                if (elem.attributes != null) {
+                    for (Attribute attr : elem.attributes.values()) {
+                        attr.detachStore();
+                    }
+                }
+            }
+        }
+        return wasMode;
+    }
+
+    /**
+     * Check if the numeric attributes of the elements of this graph are stored outside of the Java heap.
+     *
+     * @return true if numeric attributes are stored off-heap
+     * @see Graph#setOffHeapAttributes(boolean)
+     */
+    public boolean isOffHeapAttributes()
+    {
+        return (this.attributeStore != null);
+    }
+
+    /**
+     * Get the off-heap store for the numeric attributes of the elements of this graph.
+     *
+     * @return the store, or null if attributes are kept on the heap
+     */
+    OffHeapAttributeStore getAttributeStore()
+    {
+        return this.attributeStore;
+    }
+
+    /**
+     * Get an immutable snapshot of this graph in its current state. The snapshot is a <code>CompactGraph</code>, which
+     * any number of threads can read (or turn into a <code>Graph</code> of their own with <code>toGraph</code>, to draw
+     * it) without locking, while this graph goes on being changed. Edge keys and names are kept in the
+     * <code>key</code> and <code>__nAmE__</code> edge attributes of the snapshot.
+     * <p>
+     * Taking a snapshot is cheap when little has changed since the previous one, as long as that one is still in use:
+     * the same snapshot is returned if nothing has changed, and if only attribute values have changed the new snapshot
+     * shares all its structure (names, end-points and adjacency) with the previous one. Changes are noticed when made
+     * through the methods of <code>Element</code> and <code>Subgraph</code>; changing an <code>Attribute</code> object
+     * directly is not.
+     * </p>
+     * <p>
+     * The snapshot is taken while holding the lock of this graph, so a writer on another thread has to make its
+     * changes while holding that lock as well, or else take the snapshots itself and hand them to the readers.
+     * </p>
+     *
+     * @return a snapshot of this graph
+     */
+    public CompactGraph snapshot()
+    {
+        synchronized (this) {
+            CompactGraph previous = (this.snapshot == null) ? null : this.snapshot.get();
+            if (previous != null && this.snapshotStructureVersion != this.structureVersion) {
+                previous = null;
+            }
+            if (previous != null && this.snapshotAttributeVersion == this.attributeVersion
+                && isDirected() == previous.isDirected() && isStrict() == previous.isStrict()
+                && getName().equals(previous.getName())) {
+                return previous;
+            }
+            CompactGraph current = CompactGraph.snapshot(this, previous);
+            this.snapshot = new WeakReference<>(current);
+            this.snapshotStructureVersion = this.structureVersion;
+            this.snapshotAttributeVersion = this.attributeVersion;
+            return current;
+        }
+    }
+
+    /**
+     * Count a change to the subgraphs, nodes or edges of this graph.
+     */
+    void countStructureChange()
+    {
+        this.structureVersion++;
+    }
+
+    /**
+     * Count a change to an attribute value of this graph or of one of its elements.
+     */
+    void countAttributeChange()
+    {
+        this.attributeVersion++;
+    }
+
+    /**
+     * Count a change to a default attribute set in a subgraph of this graph.
+     */
+    void countDefaultChange()
+    {
+        this.attributeVersion++;
+        this.defaultsVersion++;
+    }
+
+    /**
+     * Get the count of changes that can change which attributes the elements of this graph inherit. Resolved
+     * attributes cached by an element are valid as long as this count stays the same.
+     *
+     * @return the count
+     */
+    long getDefaultsVersion()
+    {
+        return this.defaultsVersion;
+    }
+
+    /**
+     * Hold the notification of attribute changes made through the elements of this graph until
+     * <code>releaseChangeNotifications</code> is called, then tell them all at once. An attribute that changes several
+     * times meanwhile is told only once, so its listeners (such as the <code>GrappaNexus</code> objects that work out
+     * how elements are drawn) do their work once for the lot. Calls may be nested; the changes are told when the
+     * outermost hold is released.
+     *
+     * @see Graph#releaseChangeNotifications()
+     * @see Graph#beginUpdate()
+     */
+    public void holdChangeNotifications()
+    {
+        if (this.holdCount++ == 0 && this.heldChanges == null) {
+            this.heldChanges = new AttributeChangeQueue();
+        }
+    }
+
+    /**
+     * Release a hold on the notification of attribute changes. When the outermost hold is released, the listeners of
+     * every attribute changed meanwhile are told, in the order the changes were made.
+     *
+     * @exception IllegalStateException if change notifications are not held
+     * @see Graph#holdChangeNotifications()
+     */
+    public void releaseChangeNotifications() throws IllegalStateException
+    {
+        if (this.holdCount == 0) {
+            throw new IllegalStateException("change notifications are not held for graph \"" + getName() + "\"");
+        }
+        if (--this.holdCount > 0) {
+            return;
+        }
+        if (!this.rebuildOnce) {
+            this.heldChanges.dispatch();
+            return;
+        }
+        this.rebuildOnce = false;
+        List<GrappaNexus> rebuilds = this.pendingRebuilds = new ArrayList<>();
+        try {
+            this.heldChanges.dispatch();
+        } finally {
+            this.pendingRebuilds = null;
+            for (GrappaNexus nexus : rebuilds) {
+                nexus.applyPendingUpdates();
+            }
+        }
+        if (!rebuilds.isEmpty()) {
+            repaint();
+        }
+    }
+
+    /**
+     * Check if the notification of attribute changes is held.
+     *
+     * @return true if change notifications are held
+     * @see Graph#holdChangeNotifications()
+     */
+    public boolean isHoldingChangeNotifications()
+    {
+        return this.holdCount > 0;
+    }
+
+    /**
+     * Begin a batch of changes to the attributes of this graph and its elements. Until the matching
+     * <code>commitUpdate</code>, change notifications are held, so the <code>GrappaNexus</code> objects that work out
+     * how elements are drawn are not rebuilt as each attribute changes. Calls may be nested.
+     *
+     * @see Graph#commitUpdate()
+     */
+    public void beginUpdate()
+    {
+        holdChangeNotifications();
+        this.updateCount++;
+        this.rebuildOnce = true;
+    }
+
+    /**
+     * Commit a batch of changes begun with <code>beginUpdate</code>. When the outermost update is committed, the
+     * changes are told to their listeners, and each <code>GrappaNexus</code> affected rebuilds its shape, text, style,
+     * decoration and image at most once, however many of its attributes changed; then the panels displaying this graph
+     * are repainted.
+     *
+     * @exception IllegalStateException if no update is in progress
+     * @see Graph#beginUpdate()
+     */
+    public void commitUpdate() throws IllegalStateException
+    {
+        if (this.updateCount == 0) {
+            throw new IllegalStateException("no update is in progress for graph \"" + getName() + "\"");
+        }
+        this.updateCount--;
+        releaseChangeNotifications();
+    }
+
+    /**
+     * Check if an update begun with <code>beginUpdate</code> is in progress.
+     *
+     * @return true if an update is in progress
+     * @see Graph#beginUpdate()
+     */
+    public boolean isUpdating()
+    {
+        return this.updateCount > 0;
+    }
+
+    /**
+     * Put off rebuilding a GrappaNexus until the changes of the update being committed have all been told.
+     *
+     * @param nexus the GrappaNexus
+     * @return true if the rebuild was put off, false if it should be done now
+     */
+    boolean deferRebuild(GrappaNexus nexus)
+    {
+        if (this.pendingRebuilds == null) {
+            return false;
+        }
+        this.pendingRebuilds.add(nexus);
+        return true;
+    }
+
+    /**
+     * Queue an attribute change to be told later, if change notifications are held.
+     *
+     * @param attr the attribute that changed
+     * @param replacement the attribute now taking its place, or null
+     * @param when the time of the change
+     * @return true if the change was queued, false if it should be told now
+     */
+    boolean queueChange(Attribute attr, Attribute replacement, long when)
+    {
+        if (this.holdCount == 0) {
+            return false;
+        }
+        this.heldChanges.add(attr, replacement, when);
+        return true;
+    }
+
     /**
      * Check if this graph is interactively editable (i.e., through mouse events).
      *
@@ -0,0 +1,637 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A helper for adding many nodes and edges to a <code>Graph</code> at once. Nodes and edges are first staged, and
+ * referred to by their index in the order they were staged; attributes can be staged one value at a time or a whole
+ * column at a time. <code>build()</code> then checks the whole batch against the graph and against itself (unique
+ * names, strictness, unique edge keys) and, only if there is no problem, creates the elements while holding the lock
+ * of the graph. Since the new elements are known to be valid and are not drawn yet, they are created without the
+ * per-element look-ups and observer notifications done by the public constructors and
+ * <code>Element.setAttribute</code>, and all the nodes (or edges) created share one set of attributes of interest.
+ * <p>
+ * Nodes already in the graph can be staged too, so that new edges can refer to them. After a build, the staged
+ * elements can be retrieved with <code>getNode(int)</code> and <code>getEdge(int)</code>, and more elements can be
+ * staged for another build. When a build fails, the staged elements are kept so that the problems can be looked at;
+ * <code>discardStaged()</code> drops them, and everything else staged since the last successful build. A builder is
+ * not thread-safe.
+ * </p>
+ *
+ * @version $Id$
+ */
+public class GraphBuilder implements GrappaConstants
+{
+    private static final int INITIAL_CAPACITY = 256;
+
+    // number of problems listed in the message of the exception thrown by build()
+    private static final int REPORTED_PROBLEMS = 10;
+
+    private final Graph graph;
+
+    // staged nodes; a node is set once it exists in the graph
+    private Subgraph[] nodeSubgraphs = new Subgraph[INITIAL_CAPACITY];
+
+    private String[] nodeNames = new String[INITIAL_CAPACITY];
+
+    private Node[] nodes = new Node[INITIAL_CAPACITY];
+
+    private int nodeCount = 0;
+
+    // nodes staged before the last successful build
+    private int builtNodes = 0;
+
+    // staged node index by name, for the named nodes
+    private final Map<String, Integer> nodeIndex = new HashMap<>();
+
+    // staged edges; an edge is set once it exists in the graph
+    private Subgraph[] edgeSubgraphs = new Subgraph[INITIAL_CAPACITY];
+
+    private int[] tails = new int[INITIAL_CAPACITY];
+
+    private int[] heads = new int[INITIAL_CAPACITY];
+
+    private String[] tailPorts = new String[INITIAL_CAPACITY];
+
+    private String[] headPorts = new String[INITIAL_CAPACITY];
+
+    private String[] keys = new String[INITIAL_CAPACITY];
+
+    private String[] edgeNames = new String[INITIAL_CAPACITY];
+
+    private Edge[] edges = new Edge[INITIAL_CAPACITY];
+
+    private int edgeCount = 0;
+
+    // edges created by previous builds
+    private int builtEdges = 0;
+
+    // staged attribute values, one column per attribute name
+    private final Map<String, Object[]> nodeAttributes = new LinkedHashMap<>();
+
+    private final Map<String, Object[]> edgeAttributes = new LinkedHashMap<>();
+
+    /**
+     * Creates a builder adding elements to the given graph.
+     *
+     * @param graph the graph to add elements to
+     */
+    public GraphBuilder(Graph graph)
+    {
+        if (graph == null) {
+            throw new IllegalArgumentException("graph cannot be null");
+        }
+        this.graph = graph;
+    }
+
+    /**
+     * Get the graph elements are added to.
+     *
+     * @return the graph
+     */
+    public Graph getGraph()
+    {
+        return this.graph;
+    }
+
+    /**
+     * Stage a new node in the root of the graph.
+     *
+     * @param name the name of the node, or null to generate one
+     * @return the index of the node
+     */
+    public int addNode(String name)
+    {
+        return addNode(this.graph, name);
+    }
+
+    /**
+     * Stage a new node.
+     *
+     * @param subg the subgraph of the graph the node is to belong to
+     * @param name the name of the node, or null to generate one
+     * @return the index of the node
+     */
+    public int addNode(Subgraph subg, String name)
+    {
+        checkSubgraph(subg);
+        if (this.nodeCount == this.nodes.length) {
+            int capacity = this.nodeCount * 2;
+            this.nodeSubgraphs = Arrays.copyOf(this.nodeSubgraphs, capacity);
+            this.nodeNames = Arrays.copyOf(this.nodeNames, capacity);
+            this.nodes = Arrays.copyOf(this.nodes, capacity);
+        }
+        this.nodeSubgraphs[this.nodeCount] = subg;
+        this.nodeNames[this.nodeCount] = name;
+        if (name != null && !this.nodeIndex.containsKey(name)) {
+            this.nodeIndex.put(name, Integer.valueOf(this.nodeCount));
+        }
+        return this.nodeCount++;
+    }
+
+    /**
+     * Stage new nodes in one go.
+     *
+     * @param subg the subgraph of the graph the nodes are to belong to
+     * @param names the names of the nodes (null entries get generated names)
+     * @return the index of the first node, the others following in order
+     */
+    public int addNodes(Subgraph subg, String[] names)
+    {
+        int first = this.nodeCount;
+        for (String name : names) {
+            addNode(subg, name);
+        }
+        return first;
+    }
+
+    /**
+     * Stage a node that is already in the graph, so that staged edges can refer to it. A node staged more than once
+     * keeps its first index.
+     *
+     * @param node the node
+     * @return the index of the node
+     */
+    public int addExistingNode(Node node)
+    {
+        if (node == null || node.getGraph() != this.graph) {
+            throw new IllegalArgumentException("node does not belong to graph " + this.graph.getName());
+        }
+        Integer index = this.nodeIndex.get(node.getName());
+        if (index != null && this.nodes[index.intValue()] == node) {
+            return index.intValue();
+        }
+        int crnt = addNode(node.getSubgraph(), node.getName());
+        this.nodes[crnt] = node;
+        return crnt;
+    }
+
+    /**
+     * Find a node by name among the staged nodes and, failing that, in the graph, staging it if found there.
+     *
+     * @param name the name of the node
+     * @return the index of the node, or -1 if there is no such node
+     */
+    public int findNode(String name)
+    {
+        Integer index = this.nodeIndex.get(name);
+        if (index != null) {
+            return index.intValue();
+        }
+        Node node = this.graph.findNodeByName(name);
+        return (node == null) ? -1 : addExistingNode(node);
+    }
+
+    /**
+     * Stage a new edge in the root of the graph.
+     *
+     * @param tail the index of the tail node
+     * @param head the index of the head node
+     * @return the index of the edge
+     */
+    public int addEdge(int tail, int head)
+    {
+        return addEdge(this.graph, tail, null, head, null, null, null);
+    }
+
+    /**
+     * Stage a new edge. The arguments have the same meaning as for the <code>Edge</code> constructors.
+     *
+     * @param subg the subgraph of the graph the edge is to belong to
+     * @param tail the index of the tail node
+     * @param tailPort the port to use within the tail node, or null
+     * @param head the index of the head node
+     * @param headPort the port to use within the head node, or null
+     * @param key identifier distinguishing the edge from others between the same nodes, or null
+     * @param name a unique name for the edge, or null to generate one
+     * @return the index of the edge
+     * @see Edge#Edge(Subgraph, Node, String, Node, String, String, String)
+     */
+    public int addEdge(Subgraph subg, int tail, String tailPort, int head, String headPort, String key, String name)
+    {
+        checkSubgraph(subg);
+        if (this.edgeCount == this.edges.length) {
+            int capacity = this.edgeCount * 2;
+            this.edgeSubgraphs = Arrays.copyOf(this.edgeSubgraphs, capacity);
+            this.tails = Arrays.copyOf(this.tails, capacity);
+            this.heads = Arrays.copyOf(this.heads, capacity);
+            this.tailPorts = Arrays.copyOf(this.tailPorts, capacity);
+            this.headPorts = Arrays.copyOf(this.headPorts, capacity);
+            this.keys = Arrays.copyOf(this.keys, capacity);
+            this.edgeNames = Arrays.copyOf(this.edgeNames, capacity);
+            this.edges = Arrays.copyOf(this.edges, capacity);
+        }
+        this.edgeSubgraphs[this.edgeCount] = subg;
+        this.tails[this.edgeCount] = tail;
+        this.heads[this.edgeCount] = head;
+        this.tailPorts[this.edgeCount] = tailPort;
+        this.headPorts[this.edgeCount] = headPort;
+        this.keys[this.edgeCount] = key;
+        this.edgeNames[this.edgeCount] = name;
+        return this.edgeCount++;
+    }
+
+    /**
+     * Stage new edges in one go.
+     *
+     * @param subg the subgraph of the graph the edges are to belong to
+     * @param tailNodes the indices of the tail nodes
+     * @param headNodes the indices of the head nodes, in the same order
+     * @return the index of the first edge, the others following in order
+     */
+    public int addEdges(Subgraph subg, int[] tailNodes, int[] headNodes)
+    {
+        if (tailNodes.length != headNodes.length) {
+            throw new IllegalArgumentException("tail and head arrays differ in length (" + tailNodes.length + " and "
+                + headNodes.length + ")");
+        }
+        int first = this.edgeCount;
+        for (int i = 0; i < tailNodes.length; i++) {
+            addEdge(subg, tailNodes[i], null, headNodes[i], null, null, null);
+        }
+        return first;
+    }
+
+    /**
+     * Stage an attribute value for a node. Null or blank values are ignored, as they would be by
+     * <code>Element.setAttribute</code> for a new element.
+     *
+     * @param node the index of the node
+     * @param name the attribute name
+     * @param value the attribute value
+     */
+    public void setNodeAttribute(int node, String name, Object value)
+    {
+        checkIndex(node, this.nodeCount, "node");
+        column(this.nodeAttributes, name, this.nodes.length)[node] = value;
+    }
+
+    /**
+     * Stage the values of an attribute for consecutive nodes.
+     *
+     * @param name the attribute name
+     * @param first the index of the node getting the first value
+     * @param values the values, for the nodes from <code>first</code> on
+     */
+    public void setNodeAttribute(String name, int first, Object[] values)
+    {
+        checkIndex(first, this.nodeCount - values.length + 1, "node");
+        System.arraycopy(values, 0, column(this.nodeAttributes, name, this.nodes.length), first, values.length);
+    }
+
+    /**
+     * Stage an attribute value for an edge. Null or blank values are ignored, as they would be by
+     * <code>Element.setAttribute</code> for a new element.
+     *
+     * @param edge the index of the edge
+     * @param name the attribute name
+     * @param value the attribute value
+     */
+    public void setEdgeAttribute(int edge, String name, Object value)
+    {
+        checkIndex(edge, this.edgeCount, "edge");
+        column(this.edgeAttributes, name, this.edges.length)[edge] = value;
+    }
+
+    /**
+     * Stage the values of an attribute for consecutive edges.
+     *
+     * @param name the attribute name
+     * @param first the index of the edge getting the first value
+     * @param values the values, for the edges from <code>first</code> on
+     */
+    public void setEdgeAttribute(String name, int first, Object[] values)
+    {
+        checkIndex(first, this.edgeCount - values.length + 1, "edge");
+        System.arraycopy(values, 0, column(this.edgeAttributes, name, this.edges.length), first, values.length);
+    }
+
+    /**
+     * Get the number of nodes staged so far, including those already built.
+     *
+     * @return the number of nodes
+     */
+    public int getNodeCount()
+    {
+        return this.nodeCount;
+    }
+
+    /**
+     * Get the number of edges staged so far, including those already built.
+     *
+     * @return the number of edges
+     */
+    public int getEdgeCount()
+    {
+        return this.edgeCount;
+    }
+
+    /**
+     * Get a node of the graph by its index.
+     *
+     * @param node the index of the node
+     * @return the node, or null if it has not been built yet
+     */
+    public Node getNode(int node)
+    {
+        checkIndex(node, this.nodeCount, "node");
+        return this.nodes[node];
+    }
+
+    /**
+     * Get an edge of the graph by its index.
+     *
+     * @param edge the index of the edge
+     * @return the edge, or null if it has not been built yet
+     */
+    public Edge getEdge(int edge)
+    {
+        checkIndex(edge, this.edgeCount, "edge");
+        return this.edges[edge];
+    }
+
+    /**
+     * Check the elements staged since the last build, without changing the graph.
+     *
+     * @return a description of each problem found; the list is empty when the elements can be built
+     */
+    public List<String> validate()
+    {
+        List<String> problems = new ArrayList<>();
+
+        // node names must be new
+        for (int i = 0; i < this.nodeCount; i++) {
+            String name = this.nodeNames[i];
+            if (this.nodes[i] != null || name == null) {
+                continue;
+            }
+            if (this.nodeIndex.get(name).intValue() != i) {
+                Integer other = this.nodeIndex.get(name);
+                problems.add("node " + i + ": name (" + name + ") is already used by node " + other);
+            } else if (this.graph.findNodeByName(name) != null) {
+                problems.add("node " + i + ": name (" + name + ") is not unique");
+            }
+        }
+
+        boolean directed = this.graph.isDirected();
+        boolean strict = this.graph.isStrict();
+        Map<String, Integer> newNames = new HashMap<>();
+        Set<Long> ends = new HashSet<>();
+        Set<String> newKeys = new HashSet<>();
+        for (int i = this.builtEdges; i < this.edgeCount; i++) {
+            int tail = this.tails[i];
+            int head = this.heads[i];
+            if (tail < 0 || tail >= this.nodeCount || head < 0 || head >= this.nodeCount) {
+                problems.add("edge " + i + ": node index out of range (" + tail + "->" + head + ")");
+                continue;
+            }
+            String tailPort = this.tailPorts[i];
+            String headPort = this.headPorts[i];
+            if (!directed && precedes(head, tail)) {
+                tail = this.heads[i];
+                head = this.tails[i];
+                tailPort = this.headPorts[i];
+                headPort = this.tailPorts[i];
+            }
+            String name = this.edgeNames[i];
+            if (name != null) {
+                Integer other = newNames.put(name, Integer.valueOf(i));
+                if (other != null) {
+                    problems.add("edge " + i + ": name '" + name + "' is already used by edge " + other);
+                } else if (this.graph.findEdgeByName(name) != null) {
+                    problems.add("edge " + i + ": duplicate name '" + name + "'");
+                }
+            }
+            Node tailNode = this.nodes[tail];
+            Node headNode = this.nodes[head];
+            if (strict) {
+                if (tail == head) {
+                    problems.add("edge " + i + ": cannot create self-looping edge in a strict graph");
+                    continue;
+                }
+                boolean duplicate = !ends.add(Long.valueOf(((long) tail << 32) | head));
+                if (!duplicate && tailNode != null && headNode != null) {
+                    Enumeration<Edge> enm = Edge.findEdgesByEnds(tailNode, headNode);
+                    while (enm.hasMoreElements()) {
+                        Edge edge = enm.nextElement();
+                        if (edge.getTail() == tailNode || !directed) {
+                            duplicate = true;
+                            break;
+                        }
+                    }
+                }
+                if (duplicate) {
+                    problems.add("edge " + i + ": cannot create multiple edges between the same nodes in a "
+                        + "strict graph");
+                    continue;
+                }
+            }
+            String key = this.keys[i];
+            if (key == null) {
+                key = (name != null) ? name : Edge.defaultKey(tailPort, headPort, null);
+            }
+            if (key != null) {
+                if (!newKeys.add(tail + ":" + head + ":" + key)
+                    || (tailNode != null && headNode != null && Edge.findEdgeByKey(tailNode, headNode, key) != null)) {
+                    problems.add("edge " + i + ": duplicate edge with key '" + key + "'");
+                }
+            }
+        }
+        return problems;
+    }
+
+    /**
+     * Check the elements staged since the last build and, if there is no problem, add them to the graph. Both are done
+     * while holding the lock of the graph.
+     *
+     * @exception IllegalArgumentException if the staged elements cannot be added; the graph is left unchanged, and
+     *                the staged elements are kept until <code>discardStaged()</code> is called
+     */
+    public void build()
+    {
+        synchronized (this.graph) {
+            List<String> problems = validate();
+            if (!problems.isEmpty()) {
+                StringBuilder msg = new StringBuilder();
+                msg.append("cannot add elements to graph ").append(this.graph.getName()).append(" (")
+                    .append(problems.size()).append(" problems)");
+                for (int i = 0; i < problems.size() && i < REPORTED_PROBLEMS; i++) {
+                    msg.append("\n  ").append(problems.get(i));
+                }
+                throw new IllegalArgumentException(msg.toString());
+            }
+            publish();
+        }
+    }
+
+    /**
+     * Drop the nodes, edges and attribute values staged since the last successful build, for instance after
+     * <code>build()</code> failed. Elements built before are kept, along with their indices.
+     */
+    public void discardStaged()
+    {
+        for (int i = this.builtNodes; i < this.nodeCount; i++) {
+            String name = this.nodeNames[i];
+            Integer index = (name == null) ? null : this.nodeIndex.get(name);
+            if (index != null && index.intValue() >= this.builtNodes) {
+                this.nodeIndex.remove(name);
+            }
+        }
+        Arrays.fill(this.nodeSubgraphs, this.builtNodes, this.nodeCount, null);
+        Arrays.fill(this.nodeNames, this.builtNodes, this.nodeCount, null);
+        Arrays.fill(this.nodes, this.builtNodes, this.nodeCount, null);
+        this.nodeCount = this.builtNodes;
+
+        Arrays.fill(this.edgeSubgraphs, this.builtEdges, this.edgeCount, null);
+        Arrays.fill(this.tailPorts, this.builtEdges, this.edgeCount, null);
+        Arrays.fill(this.headPorts, this.builtEdges, this.edgeCount, null);
+        Arrays.fill(this.keys, this.builtEdges, this.edgeCount, null);
+        Arrays.fill(this.edgeNames, this.builtEdges, this.edgeCount, null);
+        this.edgeCount = this.builtEdges;
+
+        // a build clears the values it sets, so any value left was staged since
+        for (Object[] values : this.nodeAttributes.values()) {
+            Arrays.fill(values, null);
+        }
+        for (Object[] values : this.edgeAttributes.values()) {
+            Arrays.fill(values, null);
+        }
+    }
+
+    private void publish()
+    {
+        boolean directed = this.graph.isDirected();
+        Set<String> interest = Node.SHARED_ATTRS_OF_INTEREST;
+        for (int i = 0; i < this.nodeCount; i++) {
+            if (this.nodes[i] != null) {
+                continue;
+            }
+            Node node = new Node(this.nodeSubgraphs[i], this.nodeNames[i], interest);
+            for (Map.Entry<String, Object[]> column : this.nodeAttributes.entrySet()) {
+                Object[] values = column.getValue();
+                if (i < values.length && values[i] != null) {
+                    initAttribute(node, column.getKey(), values[i]);
+                    values[i] = null;
+                }
+            }
+            this.nodes[i] = node;
+            if (node.getName() != this.nodeNames[i]) {
+                this.nodeNames[i] = node.getName();
+                this.nodeIndex.put(node.getName(), Integer.valueOf(i));
+            }
+        }
+        this.builtNodes = this.nodeCount;
+        // values staged for nodes that were already in the graph
+        setAttributes(this.nodeAttributes, this.nodes, this.nodeCount);
+
+        interest = Edge.SHARED_ATTRS_OF_INTEREST;
+        for (int i = this.builtEdges; i < this.edgeCount; i++) {
+            int tail = this.tails[i];
+            int head = this.heads[i];
+            String tailPort = this.tailPorts[i];
+            String headPort = this.headPorts[i];
+            if (!directed && this.nodes[tail].getId() > this.nodes[head].getId()) {
+                tail = this.heads[i];
+                head = this.tails[i];
+                tailPort = this.headPorts[i];
+                headPort = this.tailPorts[i];
+            }
+            Edge edge = new Edge(this.edgeSubgraphs[i], this.nodes[tail], tailPort, this.nodes[head], headPort,
+                this.keys[i], this.edgeNames[i], interest);
+            for (Map.Entry<String, Object[]> column : this.edgeAttributes.entrySet()) {
+                Object[] values = column.getValue();
+                if (i < values.length && values[i] != null) {
+                    initAttribute(edge, column.getKey(), values[i]);
+                    values[i] = null;
+                }
+            }
+            this.edges[i] = edge;
+        }
+        this.builtEdges = this.edgeCount;
+        setAttributes(this.edgeAttributes, this.edges, this.edgeCount);
+    }
+
+    // set the remaining staged values, which are for elements that existed before the build, the usual way
+    private static void setAttributes(Map<String, Object[]> columns, Element[] elems, int count)
+    {
+        for (Map.Entry<String, Object[]> column : columns.entrySet()) {
+            Object[] values = column.getValue();
+            for (int i = 0; i < count && i < values.length; i++) {
+                if (values[i] != null) {
+                    elems[i].setAttribute(column.getKey(), values[i]);
+                    values[i] = null;
+                }
+            }
+        }
+    }
+
+    private static void initAttribute(Element elem, String name, Object value)
+    {
+        if (value instanceof String && ((String) value).trim().length() == 0
+            && Attribute.attributeType(elem.getType(), name) != STRING_TYPE) {
+            return;
+        }
+        elem.initAttribute(name, value);
+    }
+
+    // whether node a gets a lower id than node b once built
+    private boolean precedes(int a, int b)
+    {
+        Node nodeA = this.nodes[a];
+        Node nodeB = this.nodes[b];
+        if (nodeA != null && nodeB != null) {
+            return nodeA.getId() < nodeB.getId();
+        }
+        if (nodeA != null || nodeB != null) {
+            // nodes created by the build get higher ids than the existing ones
+            return nodeA != null;
+        }
+        return a < b;
+    }
+
+    private static Object[] column(Map<String, Object[]> columns, String name, int capacity)
+    {
+        if (name == null) {
+            throw new IllegalArgumentException("cannot set an attribute using a null name");
+        }
+        Object[] values = columns.get(name);
+        if (values == null) {
+            columns.put(name, (values = new Object[capacity]));
+        } else if (values.length < capacity) {
+            columns.put(name, (values = Arrays.copyOf(values, capacity)));
+        }
+        return values;
+    }
+
+    private void checkSubgraph(Subgraph subg)
+    {
+        if (subg == null || subg.getGraph() != this.graph) {
+            throw new IllegalArgumentException("subgraph does not belong to graph " + this.graph.getName());
+        }
+    }
+
+    private static void checkIndex(int index, int count, String what)
+    {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException(what + " index (" + index + ") out of range");
+        }
+    }
+}
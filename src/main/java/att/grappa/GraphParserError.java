@@ -0,0 +1,99 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+/**
+ * This class describes a problem detected by a <code>Parser</code> that recovers from errors, rather than stopping
+ * with a <code>GraphParserException</code> at the first one.
+ *
+ * @version $Id$
+ * @see Parser#setRecovering(boolean)
+ * @see Parser#getErrors()
+ */
+public class GraphParserError
+{
+    private final int line;
+
+    private final int column;
+
+    private final String message;
+
+    private final String token;
+
+    /**
+     * Constructs a <code>GraphParserError</code>.
+     *
+     * @param line the line of the input at which the problem was detected
+     * @param column the position in the line at which the problem was detected
+     * @param message a description of the problem
+     * @param token the text of the offending token, or null if not known
+     */
+    public GraphParserError(int line, int column, String message, String token)
+    {
+        this.line = line;
+        this.column = column;
+        this.message = message;
+        this.token = token;
+    }
+
+    /**
+     * Get the line of the input at which the problem was detected.
+     *
+     * @return the line number
+     */
+    public int getLine()
+    {
+        return this.line;
+    }
+
+    /**
+     * Get the position in the line at which the problem was detected.
+     *
+     * @return the character position in the line
+     */
+    public int getColumn()
+    {
+        return this.column;
+    }
+
+    /**
+     * Get the description of the problem.
+     *
+     * @return the error message
+     */
+    public String getMessage()
+    {
+        return this.message;
+    }
+
+    /**
+     * Get the text of the token at which the problem was detected, if any.
+     *
+     * @return the token text, or null
+     */
+    public String getToken()
+    {
+        return this.token;
+    }
+
+    /**
+     * Provides a string representation of the error, with its location in the same form as the messages written to
+     * the error stream of the parser.
+     *
+     * @return a string describing the error
+     */
+    @Override
+    public String toString()
+    {
+        return "[" + this.line + "(" + this.column + ")]: " + this.message
+            + (this.token == null ? "" : " (at '" + this.token + "')");
+    }
+}
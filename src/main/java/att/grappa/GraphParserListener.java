@@ -0,0 +1,100 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+/**
+ * An interface for receiving the contents of a <i>dot</i> graph as a stream of events while it is being parsed, instead
+ * of having the parser build a <code>Graph</code>. When a listener is set on a <code>Parser</code>, no
+ * <code>Node</code>, <code>Edge</code> or <code>Subgraph</code> objects are created; the parser only keeps the names of
+ * the nodes seen so far, and not even those when node membership tracking is turned off.
+ * <p>
+ * Events are delivered in input order. A node is reported each time it appears in a node statement; a node that first
+ * appears as an edge end-point is reported once, without attributes, before the edges of that statement. An edge
+ * statement is expanded into one event per edge, exactly as when a graph is built: a subgraph used as an edge end
+ * stands for the nodes that first appeared in it (or in the subgraphs nested in it), not for nodes that appeared
+ * earlier and are merely named in it again. Attribute values are given in their string form; the <code>key</code> and
+ * <code>__nAmE__</code> pseudo attributes of edges are included in the attributes passed to <code>edge</code>. The
+ * attribute arrays passed to the listener are only valid for the duration of the call.
+ * </p>
+ * <p>
+ * When node membership is not tracked, a node is also reported, without attributes, each time it appears as an edge
+ * end-point, and a subgraph used as an edge end stands for every node named in it. A listener that needs the exact
+ * subgraph membership of a <code>Graph</code> must then keep the first subgraph each node is reported in itself.
+ * </p>
+ *
+ * @version $Id$
+ * @see Parser#setListener(GraphParserListener)
+ * @see Parser#setTrackNodeMembership(boolean)
+ */
+public interface GraphParserListener
+{
+    /**
+     * Called when the graph header has been read.
+     *
+     * @param name the name of the graph
+     * @param directed true for a directed graph
+     * @param strict true for a strict graph
+     */
+    void startGraph(String name, boolean directed, boolean strict);
+
+    /**
+     * Called when the end of the graph has been reached.
+     *
+     * @param name the name of the graph
+     */
+    void endGraph(String name);
+
+    /**
+     * Called when a subgraph is opened.
+     *
+     * @param name the name of the subgraph (anonymous subgraphs are given a generated name)
+     * @param parent the name of the enclosing subgraph or graph
+     */
+    void startSubgraph(String name, String parent);
+
+    /**
+     * Called when a subgraph is closed.
+     *
+     * @param name the name of the subgraph
+     */
+    void endSubgraph(String name);
+
+    /**
+     * Called for a default attribute statement, i.e. <code>node [...]</code>, <code>edge [...]</code>,
+     * <code>graph [...]</code> or a graph attribute assignment.
+     *
+     * @param subgraph the name of the enclosing subgraph or graph
+     * @param elementType one of NODE, EDGE or SUBGRAPH, as defined in <code>GrappaConstants</code>
+     * @param attrs the attributes set by the statement
+     */
+    void defaultAttributes(String subgraph, int elementType, Attribute[] attrs);
+
+    /**
+     * Called for each node appearing in a node statement.
+     *
+     * @param subgraph the name of the enclosing subgraph or graph
+     * @param name the name of the node
+     * @param attrs the attributes given with the node, possibly an empty array
+     */
+    void node(String subgraph, String name, Attribute[] attrs);
+
+    /**
+     * Called for each edge resulting from an edge statement.
+     *
+     * @param subgraph the name of the enclosing subgraph or graph
+     * @param tail the name of the tail node
+     * @param tailPort the tail port, or null
+     * @param head the name of the head node
+     * @param headPort the head port, or null
+     * @param attrs the attributes given with the edge, possibly an empty array
+     */
+    void edge(String subgraph, String tail, String tailPort, String head, String headPort, Attribute[] attrs);
+}
@@ -0,0 +1,264 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.Vector;
+
+/**
+ * A parser listener that applies a <i>dot</i> description to an existing <code>Graph</code> instead of building a new
+ * one. Subgraphs, nodes and edges already in the graph are kept, along with their attributes and the
+ * <code>GrappaNexus</code> observers attached to them; only attributes whose string value differs from the value in the
+ * graph are set, so only the affected shapes are rebuilt. Elements that do not exist yet are created. Elements missing
+ * from the input are left untouched, as is the graph header.
+ * <p>
+ * Edges are matched by their <code>__nAmE__</code> attribute (as written by <code>printGraph</code> in filter mode),
+ * then by their key and, failing both, by their end-points. This makes the updater suited to reading back the output
+ * of a layout program such as <i>dot</i>, which only adds or changes layout attributes like <code>pos</code>,
+ * <code>bb</code> and <code>lp</code>.
+ * </p>
+ *
+ * @version $Id$
+ * @see GrappaSupport#filterGraph(Graph, Object, String, boolean)
+ */
+public class GraphUpdater implements GraphParserListener
+{
+    private final Graph graph;
+
+    private final Vector<Subgraph> subgraphs = new Vector<>(8, 4);
+
+    private final Set<Edge> claimed = Collections.newSetFromMap(new IdentityHashMap<Edge, Boolean>());
+
+    private int changes = 0;
+
+    /**
+     * Creates a listener that updates the given graph.
+     *
+     * @param graph the graph to update
+     */
+    public GraphUpdater(Graph graph)
+    {
+        if (graph == null) {
+            throw new IllegalArgumentException("graph cannot be null");
+        }
+        this.graph = graph;
+    }
+
+    /**
+     * Parse the input and apply it to the given graph.
+     *
+     * @param graph the graph to update
+     * @param input input <code>Reader</code> object
+     * @param errorWriter error output <code>Writer</code> object (or null to suppress error output)
+     * @return the number of attributes that were changed or added
+     * @exception Exception if the input cannot be parsed; the graph may have been partially updated
+     */
+    public static int update(Graph graph, Reader input, PrintWriter errorWriter) throws Exception
+    {
+        GraphUpdater updater = new GraphUpdater(graph);
+        Parser parser = new Parser(input, errorWriter, graph);
+        parser.setListener(updater);
+        parser.parse();
+        return updater.getChangeCount();
+    }
+
+    /**
+     * Get the graph being updated.
+     *
+     * @return the graph being updated
+     */
+    public Graph getGraph()
+    {
+        return this.graph;
+    }
+
+    /**
+     * Get the number of attributes changed or added so far.
+     *
+     * @return the number of attributes changed or added
+     */
+    public int getChangeCount()
+    {
+        return this.changes;
+    }
+
+    @Override
+    public void startGraph(String name, boolean directed, boolean strict)
+    {
+        this.subgraphs.removeAllElements();
+        this.subgraphs.addElement(this.graph);
+        this.claimed.clear();
+    }
+
+    @Override
+    public void endGraph(String name)
+    {
+        this.subgraphs.removeAllElements();
+        this.claimed.clear();
+    }
+
+    @Override
+    public void startSubgraph(String name, String parent)
+    {
+        Subgraph subg = this.graph.findSubgraphByName(name);
+        if (subg == null) {
+            subg = new Subgraph(current(), name);
+        }
+        this.subgraphs.addElement(subg);
+    }
+
+    @Override
+    public void endSubgraph(String name)
+    {
+        if (this.subgraphs.size() > 1) {
+            this.subgraphs.removeElementAt(this.subgraphs.size() - 1);
+        }
+    }
+
+    @Override
+    public void defaultAttributes(String subgraph, int elementType, Attribute[] attrs)
+    {
+        Subgraph subg = current();
+        for (Attribute attr : attrs) {
+            String name = attr.getName();
+            String value = attr.getStringValue();
+            switch (elementType) {
+                case GrappaConstants.NODE:
+                    if (!sameValue(subg.getNodeAttribute(name), value)) {
+                        subg.setNodeAttribute(name, value);
+                        this.changes++;
+                    }
+                    break;
+                case GrappaConstants.EDGE:
+                    if (!sameValue(subg.getEdgeAttribute(name), value)) {
+                        subg.setEdgeAttribute(name, value);
+                        this.changes++;
+                    }
+                    break;
+                default:
+                    if (!sameValue(subg.getLocalAttribute(name), value)) {
+                        subg.setAttribute(name, value);
+                        this.changes++;
+                    }
+                    break;
+            }
+        }
+    }
+
+    @Override
+    public void node(String subgraph, String name, Attribute[] attrs)
+    {
+        update(findNode(name), attrs);
+    }
+
+    @Override
+    public void edge(String subgraph, String tail, String tailPort, String head, String headPort, Attribute[] attrs)
+    {
+        String key = null;
+        String name = null;
+        for (Attribute attr : attrs) {
+            if (attr.getName().equals("key")) {
+                key = attr.getStringValue();
+            } else if (attr.getName().equals("__nAmE__")) {
+                name = attr.getStringValue();
+            }
+        }
+        Node tailNode = findNode(tail);
+        Node headNode = findNode(head);
+        Edge edge = findEdge(tailNode, headNode, key, name);
+        if (edge == null) {
+            edge = new Edge(current(), tailNode, tailPort, headNode, headPort, key, name);
+        }
+        this.claimed.add(edge);
+        update(edge, attrs);
+    }
+
+    private Subgraph current()
+    {
+        if (this.subgraphs.isEmpty()) {
+            return this.graph;
+        }
+        return this.subgraphs.lastElement();
+    }
+
+    private Node findNode(String name)
+    {
+        Node node = this.graph.findNodeByName(name);
+        if (node == null) {
+            node = new Node(current(), name);
+        }
+        return node;
+    }
+
+    private Edge findEdge(Node tail, Node head, String key, String name)
+    {
+        Edge edge = this.graph.findEdgeByName(name);
+        if (edge != null) {
+            return edge;
+        }
+        if (key != null) {
+            if (!this.graph.isDirected() && tail.getId() > head.getId()) {
+                edge = Edge.findEdgeByKey(head, tail, key);
+            } else {
+                edge = Edge.findEdgeByKey(tail, head, key);
+            }
+            if (edge != null) {
+                return edge;
+            }
+        }
+        if (name != null) {
+            // a named edge that is not in the graph is new
+            return null;
+        }
+        boolean directed = this.graph.isDirected();
+        Enumeration<Edge> enm = Edge.findEdgesByEnds(tail, head);
+        while (enm.hasMoreElements()) {
+            edge = enm.nextElement();
+            if (this.claimed.contains(edge)) {
+                continue;
+            }
+            if (!directed || (edge.getTail() == tail && edge.getHead() == head)) {
+                return edge;
+            }
+        }
+        return null;
+    }
+
+    // set the attributes whose value differs from the one in effect for the element
+    private void update(Element elem, Attribute[] attrs)
+    {
+        for (Attribute attr : attrs) {
+            String name = attr.getName();
+            if (elem.isEdge() && (name.equals("key") || name.equals("__nAmE__"))) {
+                continue;
+            }
+            String value = attr.getStringValue();
+            if (!sameValue(elem.getAttribute(name), value)) {
+                elem.setAttribute(name, value);
+                this.changes++;
+            }
+        }
+    }
+
+    private static boolean sameValue(Attribute attr, String value)
+    {
+        if (attr == null) {
+            return value == null;
+        }
+        String crnt = attr.getStringValue();
+        return crnt == null ? value == null : crnt.equals(value);
+    }
+}
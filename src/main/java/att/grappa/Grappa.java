@@ -371,4 +371,13 @@ public static String getToolTipText()
      */
     public static int elementSelection = SUBGRAPH | NODE | EDGE;
 
+    /**
+     * Indicates whether the <TT>Lexer</TT> should read its input in blocks through an internal character buffer instead
+     * of one character at a time. Buffered reading is considerably faster on large inputs, but the lexer may consume
+     * characters from the underlying <TT>Reader</TT> beyond the end of the parsed graph. The default is false.
+     *
+     * @see Lexer#Lexer(java.io.Reader, java.io.PrintWriter, boolean)
+     */
+    public static boolean bufferedLexer = false;
+
 }
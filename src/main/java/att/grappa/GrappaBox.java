@@ -56,6 +56,19 @@ public GrappaBox(double x, double y, double width, double height)
         this.height = height;
     }
 
+    /**
+     * Constructs and initializes a <code>GrappaBox</code> with the specified coordinates and string format.
+     *
+     * @param x,&nbsp;y the upper-left position coordinates of the box
+     * @param width,&nbsp;height the size of the box
+     * @param dimensioned a boolean indicating the format of the string representation
+     */
+    GrappaBox(double x, double y, double width, double height, boolean dimensioned)
+    {
+        this(x, y, width, height);
+        this.dimensioned = dimensioned;
+    }
+
     /**
      * Constructs and initializes a <code>GrappaBox</code> with the coordinates derived from the specified String
      * representation. When the <I>dimensioned</I> parameter is true, then the String format should be:
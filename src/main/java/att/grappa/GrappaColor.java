@@ -14,6 +14,7 @@
 import java.util.ArrayList;
 import java.util.Hashtable;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This abstract class sets up and provides name-to-color and color-to-name mappings and some associated class methods.
@@ -30,6 +31,14 @@
     // given color, get name
     private static Hashtable<Color, String> colorLookUp = new Hashtable<>(660, 10);
 
+    /**
+     * Largest number of color names, as supplied to <code>getColor</code>, whose colors are remembered.
+     */
+    public static final int RESOLVED_LIMIT = 4096;
+
+    // given name exactly as supplied to getColor, get the color it resolved to
+    private static final ConcurrentHashMap<String, Color> resolved = new ConcurrentHashMap<>();
+
     // initialize colorTable
     static {
         doAddColor("aliceblue", new Color(240, 248, 255));
@@ -739,6 +748,8 @@ public static void addColor(String name, Color color) throws IllegalArgumentExce
             throw new IllegalArgumentException("supplied name does not contain alphabetics (" + name + ")");
         }
         doAddColor(canonName, color);
+        // names may now resolve differently
+        resolved.clear();
     }
 
     // performs actual color table puts
@@ -824,7 +835,10 @@ private static String canonColor(String name, float[] hsb)
      * Return the color in the color table with the given name. If the color is not found, the supplied default is
      * returned. If the supplied default is null, the class default is returned. If the name consists of three comma or
      * space separated floating point numbers in the range 0 to 1 inclusive, then it is assumed to represent an HSB
-     * color specification and generated directly. The name search is case insensitive and looks at alphanumerics only.
+     * color specification and generated directly. Likewise, a name of the form <code>#rrggbb</code> or
+     * <code>#rrggbbaa</code> is taken as the hexadecimal red, green, blue (and alpha) components of the color. The name
+     * search is case insensitive and looks at alphanumerics only. The color each name resolves to is remembered, so
+     * resolving the same name again takes a single lookup, without locking.
      *
      * @param name the name of the color to be retrieved.
      * @param color the color value to return if requested color is not found.
@@ -840,28 +854,120 @@ public static Color getColor(String name, Color color)
             return color;
         }
 
+        Color retColor = resolved.get(name);
+        if (retColor != null) {
+            return retColor;
+        }
+
+        if (name.length() > 0 && name.charAt(0) == '#') {
+            retColor = hexColor(name);
+        } else {
+            retColor = hsbColor(name);
+            if (retColor == null) {
+                retColor = lookUpColor(name);
+            }
+        }
+
+        if (retColor == null) {
+            return color;
+        }
+        if (resolved.size() < RESOLVED_LIMIT) {
+            resolved.put(name, retColor);
+        }
+        return retColor;
+    }
+
+    // find the color of a name in the color table, or generate it from an HSB specification, or return null
+    private static Color lookUpColor(String name)
+    {
         float[] hsb = new float[3];
 
         String canonName = canonColor(name, hsb);
+        if (canonName == null) {
+            return null;
+        }
 
         Color retColor = colorTable.get(canonName);
 
-        if (retColor == null) {
-            if (hsb[0] < 0) {
-                retColor = color;
-            } else {
-                retColor = Color.getHSBColor(hsb[0], hsb[1], hsb[2]);
-                if (retColor == null) {
-                    retColor = color;
-                } else {
-                    doAddColor(canonName, retColor);
-                }
+        if (retColor == null && hsb[0] >= 0) {
+            retColor = Color.getHSBColor(hsb[0], hsb[1], hsb[2]);
+            if (retColor != null) {
+                doAddColor(canonName, retColor);
             }
         }
 
         return retColor;
     }
 
+    // generate the color of a plain HSB specification (three numbers separated by single commas or spaces), as
+    // lookUpColor would but without canonicalizing the name first, or return null if the name is not one
+    private static Color hsbColor(String name)
+    {
+        int len = name.length();
+        int[] ends = null;
+        int separators = 0;
+        int dots = 0;
+        for (int i = 0; i < len; i++) {
+            char c = name.charAt(i);
+            if (c == ',' || c == ' ') {
+                if (separators == 2) {
+                    return null;
+                }
+                if (ends == null) {
+                    ends = new int[3];
+                }
+                ends[separators++] = i;
+            } else if (c == '.') {
+                dots++;
+            } else if (c < '0' || c > '9') {
+                return null;
+            }
+        }
+        if (separators != 2 || dots > 3) {
+            return null;
+        }
+        ends[2] = len;
+        float[] hsb = new float[3];
+        int start = 0;
+        try {
+            for (int i = 0; i < 3; i++) {
+                hsb[i] = Float.parseFloat(name.substring(start, ends[i]));
+                start = ends[i] + 1;
+            }
+        } catch (NumberFormatException nfe) {
+            return null;
+        }
+        // a plain specification is its own canonical name
+        Color retColor = colorTable.get(name);
+        if (retColor == null) {
+            retColor = Color.getHSBColor(hsb[0], hsb[1], hsb[2]);
+            doAddColor(name, retColor);
+        }
+        return retColor;
+    }
+
+    // generate the color of a #rrggbb or #rrggbbaa specification, or return null if the name is not one
+    private static Color hexColor(String name)
+    {
+        int len = name.length();
+        if (len != 7 && len != 9) {
+            return null;
+        }
+        long value = 0;
+        for (int i = 1; i < len; i++) {
+            int digit = Character.digit(name.charAt(i), 16);
+            if (digit < 0) {
+                return null;
+            }
+            value = (value << 4) | digit;
+        }
+        if (len == 7) {
+            return new Color((int) value);
+        }
+        // Color takes the alpha in the top byte
+        return new Color((int) ((value & 0xFF) << 24 | value >>> 8), true);
+    }
+
     /**
      * Returns the color list in the color table. Each valid color needs to be separated by a ":".
      *
@@ -888,7 +994,8 @@ public static List<Color> getColorList(String name)
      * Return the name of the supplied color.
      *
      * @param color the color whose name is to be retrieved.
-     * @return the color's (most recently entered) name, if it is in the color table, or its HSB value string otherwise.
+     * @return the color's (most recently entered) name, if it is in the color table, or its <code>#rrggbb</code> value
+     *         otherwise (<code>#rrggbbaa</code> if it is not opaque).
      */
     public static String getColorName(Color color)
     {
@@ -897,9 +1004,20 @@ public static String getColorName(Color color)
         }
         String name = colorLookUp.get(color);
         if (name == null) {
-            float[] hsb = Color.RGBtoHSB(color.getRed(), color.getGreen(), color.getBlue(), null);
-            name = hsb[0] + "," + hsb[1] + "," + hsb[2];
+            StringBuilder hex = new StringBuilder(9).append('#');
+            appendHex(hex, color.getRed());
+            appendHex(hex, color.getGreen());
+            appendHex(hex, color.getBlue());
+            if (color.getAlpha() != 255) {
+                appendHex(hex, color.getAlpha());
+            }
+            name = hex.toString();
         }
         return (name);
     }
+
+    private static void appendHex(StringBuilder hex, int component)
+    {
+        hex.append(Character.forDigit(component >> 4, 16)).append(Character.forDigit(component & 0xF, 16));
+    }
 }
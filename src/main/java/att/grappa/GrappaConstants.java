@@ -601,6 +601,253 @@
      */
     public final static int WIDTH_HASH = WIDTH_ATTR.hashCode();
 
+    //
+    // Attribute keys
+    //
+
+    /**
+     * Numeric key for position attribute (pos).
+     */
+    public final static int POS_KEY = 0;
+
+    /**
+     * Numeric key for width attribute (width).
+     */
+    public final static int WIDTH_KEY = 1;
+
+    /**
+     * Numeric key for height attribute (height).
+     */
+    public final static int HEIGHT_KEY = 2;
+
+    /**
+     * Numeric key for shape attribute (shape).
+     */
+    public final static int SHAPE_KEY = 3;
+
+    /**
+     * Numeric key for peripheries attribute (peripheries).
+     */
+    public final static int PERIPHERIES_KEY = 4;
+
+    /**
+     * Numeric key for sides attribute (sides).
+     */
+    public final static int SIDES_KEY = 5;
+
+    /**
+     * Numeric key for distortion attribute (distortion).
+     */
+    public final static int DISTORTION_KEY = 6;
+
+    /**
+     * Numeric key for skew attribute (skew).
+     */
+    public final static int SKEW_KEY = 7;
+
+    /**
+     * Numeric key for orientation angle attribute (orientation).
+     */
+    public final static int ORIENTATION_KEY = 8;
+
+    /**
+     * Numeric key for rotation attribute (rotation).
+     */
+    public final static int ROTATION_KEY = 9;
+
+    /**
+     * Numeric key for custom class used to draw custom shapes (custom).
+     */
+    public final static int CUSTOM_KEY = 10;
+
+    /**
+     * Numeric key for style attribute (style).
+     */
+    public final static int STYLE_KEY = 11;
+
+    /**
+     * Numeric key for label attribute (label).
+     */
+    public final static int LABEL_KEY = 12;
+
+    /**
+     * Numeric key for label position attribute (lp).
+     */
+    public final static int LP_KEY = 13;
+
+    /**
+     * Numeric key for head label attribute (headlabel).
+     */
+    public final static int HEADLABEL_KEY = 14;
+
+    /**
+     * Numeric key for head label position attribute (head_lp).
+     */
+    public final static int HEADLP_KEY = 15;
+
+    /**
+     * Numeric key for tail label attribute (taillabel).
+     */
+    public final static int TAILLABEL_KEY = 16;
+
+    /**
+     * Numeric key for tail label position attribute (tail_lp).
+     */
+    public final static int TAILLP_KEY = 17;
+
+    /**
+     * Numeric key for fontname attribute (fontname).
+     */
+    public final static int FONTNAME_KEY = 18;
+
+    /**
+     * Numeric key for fontstyle attribute (fontstyle).
+     */
+    public final static int FONTSTYLE_KEY = 19;
+
+    /**
+     * Numeric key for fontsize attribute (fontsize).
+     */
+    public final static int FONTSIZE_KEY = 20;
+
+    /**
+     * Numeric key for color attribute (color).
+     */
+    public final static int COLOR_KEY = 21;
+
+    /**
+     * Numeric key for fill color attribute (fillcolor).
+     */
+    public final static int FILLCOLOR_KEY = 22;
+
+    /**
+     * Numeric key for fontcolor attribute (fontcolor).
+     */
+    public final static int FONTCOLOR_KEY = 23;
+
+    /**
+     * Numeric key for direction attribute (dir).
+     */
+    public final static int DIR_KEY = 24;
+
+    /**
+     * Numeric key for image attribute (image).
+     */
+    public final static int IMAGE_KEY = 25;
+
+    /**
+     * Numeric key for minimum subgraph size attribute (minsize).
+     */
+    public final static int MINSIZE_KEY = 26;
+
+    /**
+     * Numeric key for minimum subgraph bounding box attribute (minbox).
+     */
+    public final static int MINBOX_KEY = 27;
+
+    /**
+     * Numeric key for bounding box attribute (bb).
+     */
+    public final static int BBOX_KEY = 28;
+
+    /**
+     * Numeric key for tip attribute (tip).
+     */
+    public final static int TIP_KEY = 29;
+
+    /**
+     * Numeric key for tag attribute (tag).
+     */
+    public final static int TAG_KEY = 30;
+
+    /**
+     * Numeric key for print list attribute (printlist).
+     */
+    public final static int PRINTLIST_KEY = 31;
+
+    /**
+     * Numeric key for cluster rank attribute (clusterrank).
+     */
+    public final static int CLUSTERRANK_KEY = 32;
+
+    /**
+     * Numeric key for background color attribute (grappaBackgroundColor).
+     */
+    public final static int GRAPPA_BACKGROUND_COLOR_KEY = 33;
+
+    /**
+     * Numeric key for selection color attribute (grappaSelectionColor).
+     */
+    public final static int GRAPPA_SELECTION_STYLE_KEY = 34;
+
+    /**
+     * Numeric key for deletion color attribute (grappaDeletionColor).
+     */
+    public final static int GRAPPA_DELETION_STYLE_KEY = 35;
+
+    /**
+     * Numeric key for fontsize adjustment attribute (grappaFontsizeAdjustment).
+     */
+    public final static int GRAPPA_FONTSIZE_ADJUSTMENT_KEY = 36;
+
+    /**
+     * Numeric key for label position attribute (margin).
+     */
+    public final static int MARGIN_KEY = 37;
+
+    /**
+     * Numeric key for mincross limit attribute [unused] (mclimit).
+     */
+    public final static int MCLIMIT_KEY = 38;
+
+    /**
+     * Numeric key for minimum rank distance between head and tail of edges attribute [unused] (minlen).
+     */
+    public final static int MINLEN_KEY = 39;
+
+    /**
+     * Numeric key for node separation attribute [unused] (nodesep).
+     */
+    public final static int NODESEP_KEY = 40;
+
+    /**
+     * Numeric key for patch work attribute (patch).
+     */
+    public final static int PATCH_KEY = 41;
+
+    /**
+     * Numeric key for rank direction attribute [unused] (rankdir).
+     */
+    public final static int RANKDIR_KEY = 42;
+
+    /**
+     * Numeric key for rank separation attribute [unused] (ranksep).
+     */
+    public final static int RANKSEP_KEY = 43;
+
+    /**
+     * Numeric key for rectangles attribute (rects).
+     */
+    public final static int RECTS_KEY = 44;
+
+    /**
+     * Numeric key for size attribute [unused] (size).
+     */
+    public final static int SIZE_KEY = 45;
+
+    /**
+     * Numeric key for weight attribute [unused] (weight).
+     */
+    public final static int WEIGHT_KEY = 46;
+
+    /**
+     * Number of numeric keys reserved for the standard attributes; the keys of other attribute names are assigned
+     * from this value on.
+     *
+     * @see AttributeKey
+     */
+    public final static int STANDARD_KEY_COUNT = 64;
+
     //
     // Attribute types
     //
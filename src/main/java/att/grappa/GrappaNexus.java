@@ -30,7 +30,6 @@
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.UndeclaredThrowableException;
 import java.net.URL;
-import java.util.Observer;
 
 /**
  * This class brings together shape, text and attribute information related to bounding and drawing an element.
@@ -39,7 +38,7 @@
  * @author <a href="mailto:john@research.att.com">John Mocenigo</a>, <a href="http://www.research.att.com">Research @
  *         AT&T Labs</a>
  */
-public class GrappaNexus implements GrappaConstants, Cloneable, ImageObserver, Observer, Shape
+public class GrappaNexus implements GrappaConstants, Cloneable, ImageObserver, AttributeListener, Shape
 {
     /**
      * RoundRectangle arc height factor
@@ -121,6 +120,23 @@ public class GrappaNexus implements GrappaConstants, Cloneable, ImageObserver, O
 
     private long lastImageUpdate = 0;
 
+    // parts to rebuild, by the flags below, when the graph update in progress is committed, and the latest update time
+    private int pendingUpdates = 0;
+
+    private long pendingUpdateTime = 0;
+
+    private static final int SHAPE_UPDATE = 1;
+
+    private static final int TEXT_UPDATE = 2;
+
+    private static final int STYLE_UPDATE = 4;
+
+    private static final int DECORATION_UPDATE = 8;
+
+    private static final int IMAGE_UPDATE = 16;
+
+    private static final int BOUNDS_UPDATE = 32;
+
     Font font = null;
 
     String[] lstr = null;
@@ -233,10 +249,10 @@ public void updateShape()
                 }
 
                 Node node = (Node) this.element;
-                GrappaPoint pos = (GrappaPoint) node.getAttributeValue(POS_ATTR);
-                Double Width = (Double) node.getAttributeValue(WIDTH_ATTR);
-                Double Height = (Double) node.getAttributeValue(HEIGHT_ATTR);
-                Integer Type = (Integer) node.getAttributeValue(SHAPE_ATTR);
+                GrappaPoint pos = (GrappaPoint) node.getAttributeValue(POS_KEY);
+                Double Width = (Double) node.getAttributeValue(WIDTH_KEY);
+                Double Height = (Double) node.getAttributeValue(HEIGHT_KEY);
+                Integer Type = (Integer) node.getAttributeValue(SHAPE_KEY);
 
                 double width = PointsPerInch * Width.doubleValue();
                 double height = PointsPerInch * Height.doubleValue();
@@ -244,12 +260,12 @@ public void updateShape()
 
                 // the above attributes are sure to be there since they are defaulted,
                 // but these could return null values, so be sure to account for that
-                Integer Peripheries = (Integer) node.getAttributeValue(PERIPHERIES_ATTR);
-                Integer Sides = (Integer) node.getAttributeValue(SIDES_ATTR);
-                Double Distortion = (Double) node.getAttributeValue(DISTORTION_ATTR);
-                Double Skew = (Double) node.getAttributeValue(SKEW_ATTR);
-                Double Orientation = (Double) node.getAttributeValue(ORIENTATION_ATTR);
-                Double Rotation = (Double) node.getAttributeValue(ROTATION_ATTR);
+                Integer Peripheries = (Integer) node.getAttributeValue(PERIPHERIES_KEY);
+                Integer Sides = (Integer) node.getAttributeValue(SIDES_KEY);
+                Double Distortion = (Double) node.getAttributeValue(DISTORTION_KEY);
+                Double Skew = (Double) node.getAttributeValue(SKEW_KEY);
+                Double Orientation = (Double) node.getAttributeValue(ORIENTATION_KEY);
+                Double Rotation = (Double) node.getAttributeValue(ROTATION_KEY);
 
                 int peripheries = Peripheries == null ? -1 : Peripheries.intValue();
                 int sides = Sides == null ? -1 : Sides.intValue();
@@ -266,7 +282,7 @@ public void updateShape()
 
                 switch (type) {
                     case CUSTOM_SHAPE:
-                        String custom = (String) node.getAttributeValue(CUSTOM_ATTR);
+                        String custom = (String) node.getAttributeValue(CUSTOM_KEY);
                         if (custom == null) {
                             throw new IllegalArgumentException("custom attibuted null for node (" + node.getName()
                                 + ") with custom shape");
@@ -582,8 +598,8 @@ public void updateShape()
                     this.element.getSubgraph().grappaNexus.dirty = true;
                 }
 
-                if ((this.shape = (Shape) edge.getAttributeValue(POS_ATTR)) == null) {
-                    Integer attr_type = (Integer) (edge.getAttributeValue(DIR_ATTR));
+                if ((this.shape = (Shape) edge.getAttributeValue(POS_KEY)) == null) {
+                    Integer attr_type = (Integer) (edge.getAttributeValue(DIR_KEY));
 
                     edge.direction =
                         (attr_type != null ? attr_type.intValue() : (edge.getGraph().isDirected()
@@ -593,10 +609,10 @@ public void updateShape()
                     // node centers
                     edge.setAttribute(
                         "pos",
-                        new GrappaLine(new GrappaPoint[] { (GrappaPoint) (edge.getTail().getAttributeValue(POS_ATTR)),
-                        (GrappaPoint) (edge.getHead().getAttributeValue(POS_ATTR)) }, edge.direction)
+                        new GrappaLine(new GrappaPoint[] { (GrappaPoint) (edge.getTail().getAttributeValue(POS_KEY)),
+                        (GrappaPoint) (edge.getHead().getAttributeValue(POS_KEY)) }, edge.direction)
                         );
-                    this.shape = (Shape) edge.getAttributeValue(POS_ATTR);
+                    this.shape = (Shape) edge.getAttributeValue(POS_KEY);
                 }
                 break;
             case SUBGRAPH:
@@ -636,7 +652,7 @@ public void updateShape()
                             throw new InternalError("unknown type (" + elem.getType() + ")");
                     }
                 }
-                GrappaSize minSize = (GrappaSize) this.element.getAttributeValue(MINSIZE_ATTR);
+                GrappaSize minSize = (GrappaSize) this.element.getAttributeValue(MINSIZE_KEY);
                 if (minSize != null) {
                     if (sgbox == null) {
                         sgbox = new java.awt.geom.Rectangle2D.Double(0, 0, minSize.getWidth(), minSize.getHeight());
@@ -645,7 +661,7 @@ public void updateShape()
                             sgbox.getCenterY() - (minSize.getHeight() / 2.0), minSize.getWidth(), minSize.getHeight()));
                     }
                 }
-                GrappaBox minBox = (GrappaBox) this.element.getAttributeValue(MINBOX_ATTR);
+                GrappaBox minBox = (GrappaBox) this.element.getAttributeValue(MINBOX_KEY);
                 if (minBox != null) {
                     if (sgbox == null) {
                         sgbox = new java.awt.geom.Rectangle2D.Double(minBox.x, minBox.y, minBox.width, minBox.height);
@@ -674,24 +690,18 @@ public void updateShape()
     public void updateStyle()
     {
         long thisStyleUpdate = System.currentTimeMillis();
-        if ((this.style = (GrappaStyle) this.element.getAttributeValue(STYLE_ATTR)) == null) {
+        if ((this.style = (GrappaStyle) this.element.getAttributeValue(STYLE_KEY)) == null) {
             throw new InternalError("style defaults not properly set in Graph.java");
         }
-
-        // an attempt to handle font info passed via style instead of fontstyle
-        if (this.style.font_style != null
-            &&
-            this.style.font_style != (Integer) this.element.getAttributeValue(FONTSTYLE_ATTR)) {
-            this.element.setAttribute(FONTSTYLE_ATTR, this.style.font_style);
-            this.style.font_style = null;
-        }
+        // font info passed via style instead of fontstyle is applied by updateText
         this.lastUpdate = this.lastStyleUpdate = thisStyleUpdate;
     }
 
     /**
      * Update the text information for the underlying element. The <I>fontcolor</I>, <I>fontname</I>, <I>fontsize</I>,
      * <I>fontstyle</I>, and <I>label</I> attributes are examined. The <I>lp</I> attribute is also examined for edges
-     * and subgraphs.
+     * and subgraphs. Font info given by the style (such as <I>bold</I>) is used instead of the <I>fontstyle</I>
+     * attribute, unless the element sets that attribute itself.
      */
     public void updateText()
     {
@@ -713,7 +723,7 @@ public void updateText()
         String[] labels;
         GrappaPoint[] lps;
 
-        String labelAttr = (String) this.element.getAttributeValue(LABEL_ATTR);
+        String labelAttr = (String) this.element.getAttributeValue(LABEL_KEY);
 
         if (labelAttr != null && labelAttr.equals("\\N")) {
             labelAttr = this.element.getName();
@@ -729,7 +739,7 @@ public void updateText()
         headpt = tailpt = null;
 
         if (this.element.isEdge()) {
-            if ((headstr = (String) this.element.getAttributeValue(HEADLABEL_ATTR)) != null
+            if ((headstr = (String) this.element.getAttributeValue(HEADLABEL_KEY)) != null
                 && (attr = this.element.getLocalAttribute(HEADLP_ATTR)) != null) {
                 headpt = (GrappaPoint) (attr.getValue());
                 lcnt++;
@@ -737,7 +747,7 @@ public void updateText()
             } else {
                 headstr = null;
             }
-            if ((tailstr = (String) this.element.getAttributeValue(TAILLABEL_ATTR)) != null
+            if ((tailstr = (String) this.element.getAttributeValue(TAILLABEL_KEY)) != null
                 && (attr = this.element.getLocalAttribute(TAILLP_ATTR)) != null) {
                 tailpt = (GrappaPoint) (attr.getValue());
                 lcnt++;
@@ -770,9 +780,14 @@ public void updateText()
 
             if (hasEdgeLabel || labelAttr.length() > 0) {
 
-                String fontname = (String) this.element.getAttributeValue(FONTNAME_ATTR);
-                Integer fontstyle = (Integer) this.element.getAttributeValue(FONTSTYLE_ATTR);
-                Integer fontsize = (Integer) this.element.getAttributeValue(FONTSIZE_ATTR);
+                String fontname = (String) this.element.getAttributeValue(FONTNAME_KEY);
+                Integer fontstyle = (Integer) this.element.getAttributeValue(FONTSTYLE_KEY);
+                // an attempt to handle font info passed via style instead of fontstyle
+                if (this.style != null && this.style.font_style != null
+                    && this.element.getLocalAttribute(FONTSTYLE_KEY) == null) {
+                    fontstyle = this.style.font_style;
+                }
+                Integer fontsize = (Integer) this.element.getAttributeValue(FONTSIZE_KEY);
                 Integer fontadj =
                     (Integer) (this.element.getGraph()).getGrappaAttributeValue(GRAPPA_FONTSIZE_ADJUSTMENT_ATTR);
 
@@ -839,7 +854,7 @@ public void updateText()
                             || ((sg = this.element.getSubgraph()) != null && attr == sg.getLocalAttribute(LP_ATTR))) {
                             Rectangle2D lbox;
 
-                            if ((lbox = (Rectangle2D) this.element.getAttributeValue(BBOX_ATTR)) == null) {
+                            if ((lbox = (Rectangle2D) this.element.getAttributeValue(BBOX_KEY)) == null) {
                                 lbox = this.bbox;
                             }
 
@@ -1032,17 +1047,17 @@ public void updateText()
     public void updateDecoration()
     {
         long thisDecorationUpdate = System.currentTimeMillis();
-        this.color = (Color) (this.element.getAttributeValue(COLOR_ATTR));
+        this.color = (Color) (this.element.getAttributeValue(COLOR_KEY));
 
         @SuppressWarnings("unchecked")
-        java.util.List<Color> fillcolorList = (java.util.List<Color>) this.element.getAttributeValue(FILLCOLOR_ATTR);
+        java.util.List<Color> fillcolorList = (java.util.List<Color>) this.element.getAttributeValue(FILLCOLOR_KEY);
         if (fillcolorList != null && fillcolorList.size() > 0) {
             this.fillcolor = fillcolorList.get(0);
         } else {
             this.fillcolor = null;
         }
 
-        this.font_color = (Color) (this.element.getAttributeValue(FONTCOLOR_ATTR));
+        this.font_color = (Color) (this.element.getAttributeValue(FONTCOLOR_KEY));
         if (this.element.isEdge() && this.shape != null && this.shape instanceof GrappaLine) {
             Edge edge = (Edge) this.element;
             int graph_dir = edge.getGraph().isDirected() ? GrappaLine.TAIL_ARROW_EDGE : GrappaLine.NONE_ARROW_EDGE;
@@ -1055,7 +1070,7 @@ public void updateDecoration()
             edge.direction = dir;
 
             GrappaLine gline = (GrappaLine) this.shape;
-            boolean forward = gline.startsNear((Point2D) (edge.getTail().getAttributeValue(POS_ATTR)));
+            boolean forward = gline.startsNear((Point2D) (edge.getTail().getAttributeValue(POS_KEY)));
             // basically, it edge loops on same node, assume it is always
             // in the forward orientation
             if (!forward && edge.getHead() == edge.getTail()) {
@@ -1105,7 +1120,7 @@ public void updateDecoration()
     public void updateImage()
     {
         long thisImageUpdate = System.currentTimeMillis();
-        String path = (String) (this.element.getAttributeValue(IMAGE_ATTR));
+        String path = (String) (this.element.getAttributeValue(IMAGE_KEY));
 
         if (path != null && Grappa.toolkit != null) {
 
@@ -1455,44 +1470,26 @@ public boolean intersects(Rectangle2D r)
 
     // //////////////////////////////////////////////////////////////////////
     //
-    // Observer interface
+    // AttributeListener interface
     //
     // //////////////////////////////////////////////////////////////////////
 
     /**
-     * This method is called whenever the observed object is changed. When certain observed attributes (attributes of
+     * This method is called whenever a listened to attribute is changed. When certain attributes (attributes of
      * interest) are changed, this method will update the GrappaNexus as needed.
      *
-     * @param obs the Observable must be an Attribute
-     * @param arg either a Long giving the update time of the Attribute as returned by System.getTimeInMillis() or it is
-     *            a two element Object array, where the first element is a new Attribute to be observed in place of that
-     *            passed via <I>obs</I> and the second element is the update time of this new Attribute.
+     * @param attr the attribute that changed
+     * @param replacement a new Attribute to be listened to in place of <I>attr</I>, or null
+     * @param when the update time of the Attribute as returned by System.currentTimeMillis()
      */
     @Override
-    public void update(java.util.Observable obs, Object arg)
+    public void attributeChanged(Attribute attr, Attribute replacement, long when)
     {
-
-        // begin boilerplate
-        if (!(obs instanceof Attribute)) {
-            throw new IllegalArgumentException("expected to be observing attributes only (obs) for \""
-                + this.element.getName() + "\"");
+        if (replacement != null) {
+            attr.removeListener(this);
+            attr = replacement;
+            attr.addListener(this);
         }
-        Attribute attr = (Attribute) obs;
-        if (arg instanceof Object[]) {
-            Object[] args = (Object[]) arg;
-            if (args.length == 2 && args[0] instanceof Attribute && args[1] instanceof Long) {
-                attr.deleteObserver(this);
-                attr = (Attribute) args[0];
-                attr.addObserver(this);
-                // in case we call: super.update(obs,arg)
-                obs = attr;
-                arg = args[1];
-            } else {
-                throw new IllegalArgumentException("badly formated update information for \"" + this.element.getName()
-                    + "\"");
-            }
-        }
-        // end boilerplate
 
         // when this object is created it should register with the
         // appropriate Attributes based on how it was created;
@@ -1500,158 +1497,192 @@ public void update(java.util.Observable obs, Object arg)
         // and set flags in this object (and put tokens in an update
         // stack in Graph is autoUpdate is true) so that the appropriate
         // parts will be updated before any drawing occurs.
-        if (arg instanceof Long) {
-
-            String attrName = attr.getName();
-            int attrHash = attr.getNameHash();
-            long thisUpdate = ((Long) arg).longValue() + 1L;
+        if (this.element == null) {
+            return;
+        }
+        int updates = updatesFor(attr);
+        long thisUpdate = when + 1L;
+
+        // within a graph update, just note what to rebuild when it is committed
+        if (this.pendingUpdates != 0) {
+            this.pendingUpdates |= updates;
+            this.pendingUpdateTime = Math.max(this.pendingUpdateTime, thisUpdate);
+            return;
+        }
+        Graph graph = this.element.getGraph();
+        if (graph != null && graph.deferRebuild(this)) {
+            this.pendingUpdates = updates;
+            this.pendingUpdateTime = thisUpdate;
+            return;
+        }
+        applyUpdates(updates, thisUpdate);
+    }
 
-            if (this.element == null || !this.element.reserve()) {
-                return;
-            }
+    /**
+     * Rebuild the parts of this GrappaNexus that changes noted during a graph update call for.
+     *
+     * @see Graph#commitUpdate()
+     */
+    void applyPendingUpdates()
+    {
+        int updates = this.pendingUpdates;
+        this.pendingUpdates = 0;
+        applyUpdates(updates, this.pendingUpdateTime);
+    }
 
-            // reset
-            this.objs = null;
-
-            switch (this.element.getType()) {
-                case NODE:
-                    if ((POS_HASH == attrHash && POS_ATTR.equals(attrName))
-                        ||
-                        (WIDTH_HASH == attrHash && WIDTH_ATTR.equals(attrName))
-                        ||
-                        (HEIGHT_HASH == attrHash && HEIGHT_ATTR.equals(attrName))
-                        ||
-                        (SHAPE_HASH == attrHash && SHAPE_ATTR.equals(attrName))) {
-                        if (this.lastShapeUpdate < thisUpdate) {
-                            updateShape();
-                            if (Grappa.autoPositionNodeLabel) {
-                                updateText();
-                            }
-                        }
-                    } else if ((LABEL_HASH == attrHash && LABEL_ATTR.equals(attrName))
-                        ||
-                        (
-                        !Grappa.autoPositionNodeLabel
-                        &&
-                        (LP_HASH == attrHash && LP_ATTR.equals(attrName)) // in case it is used
-                        )
-                        ||
-                        (FONTSIZE_HASH == attrHash && FONTSIZE_ATTR.equals(attrName))
-                        ||
-                        (FONTNAME_HASH == attrHash && FONTNAME_ATTR.equals(attrName))
-                        ||
-                        (FONTSTYLE_HASH == attrHash && FONTSTYLE_ATTR.equals(attrName))) {
-                        if (this.lastTextUpdate < thisUpdate) {
-                            updateText();
-                        }
-                    } else if ((STYLE_HASH == attrHash && STYLE_ATTR.equals(attrName))) {
-                        if (this.lastStyleUpdate < thisUpdate) {
-                            updateStyle();
-                        }
-                    } else if ((COLOR_HASH == attrHash && COLOR_ATTR.equals(attrName))
-                        ||
-                        (FONTCOLOR_HASH == attrHash && FONTCOLOR_ATTR.equals(attrName))) {
-                        if (this.lastDecorationUpdate < thisUpdate) {
-                            updateDecoration();
-                        }
-                    } else if ((IMAGE_HASH == attrHash && IMAGE_ATTR.equals(attrName))) {
-                        if (this.lastImageUpdate < thisUpdate) {
-                            updateImage();
-                        }
-                    } else {
-                        throw new InternalError("update called for \"" + this.element.getName()
-                            + "\" with an unmonitored attribute: " + attrName);
-                    }
-                    break;
-                case EDGE:
-                    if ((POS_HASH == attrHash && POS_ATTR.equals(attrName))) {
-                        if (this.lastShapeUpdate < thisUpdate) {
-                            updateShape();
-                        }
-                    } else if ((LABEL_HASH == attrHash && LABEL_ATTR.equals(attrName))
-                        ||
-                        (LP_HASH == attrHash && LP_ATTR.equals(attrName))
-                        ||
-                        (HEADLABEL_HASH == attrHash && HEADLABEL_ATTR.equals(attrName))
-                        ||
-                        (HEADLP_HASH == attrHash && HEADLP_ATTR.equals(attrName))
-                        ||
-                        (TAILLABEL_HASH == attrHash && TAILLABEL_ATTR.equals(attrName))
-                        ||
-                        (TAILLP_HASH == attrHash && TAILLP_ATTR.equals(attrName))
-                        ||
-                        (FONTSIZE_HASH == attrHash && FONTSIZE_ATTR.equals(attrName))
-                        ||
-                        (FONTNAME_HASH == attrHash && FONTNAME_ATTR.equals(attrName))
-                        ||
-                        (FONTSTYLE_HASH == attrHash && FONTSTYLE_ATTR.equals(attrName))) {
-                        if (this.lastTextUpdate < thisUpdate) {
-                            updateText();
-                        }
-                    } else if ((STYLE_HASH == attrHash && STYLE_ATTR.equals(attrName))) {
-                        if (this.lastStyleUpdate < thisUpdate) {
-                            updateStyle();
-                        }
-                    } else if ((COLOR_HASH == attrHash && COLOR_ATTR.equals(attrName))
-                        ||
-                        (DIR_HASH == attrHash && DIR_ATTR.equals(attrName))
-                        ||
-                        (FONTCOLOR_HASH == attrHash && FONTCOLOR_ATTR.equals(attrName))) {
-                        if (this.lastDecorationUpdate < thisUpdate) {
-                            updateDecoration();
-                        }
-                    } else if ((IMAGE_HASH == attrHash && IMAGE_ATTR.equals(attrName))) {
-                        if (this.lastImageUpdate < thisUpdate) {
-                            updateImage();
-                        }
-                    } else {
-                        throw new InternalError("update called for \"" + this.element.getName()
-                            + "\" with an unmonitored attribute: " + attrName);
-                    }
-                    break;
-                case SUBGRAPH:
-                    if ((LABEL_HASH == attrHash && LABEL_ATTR.equals(attrName))
-                        ||
-                        (LP_HASH == attrHash && LP_ATTR.equals(attrName))
-                        ||
-                        (FONTSIZE_HASH == attrHash && FONTSIZE_ATTR.equals(attrName))
-                        ||
-                        (FONTNAME_HASH == attrHash && FONTNAME_ATTR.equals(attrName))
-                        ||
-                        (FONTSTYLE_HASH == attrHash && FONTSTYLE_ATTR.equals(attrName))) {
-                        if (this.lastTextUpdate < thisUpdate) {
-                            updateText();
-                        }
-                    } else if ((STYLE_HASH == attrHash && STYLE_ATTR.equals(attrName))) {
-                        if (this.lastStyleUpdate < thisUpdate) {
-                            updateStyle();
-                        }
-                    } else if ((COLOR_HASH == attrHash && COLOR_ATTR.equals(attrName))
-                        ||
-                        (FONTCOLOR_HASH == attrHash && FONTCOLOR_ATTR.equals(attrName))) {
-                        if (this.lastDecorationUpdate < thisUpdate) {
-                            updateDecoration();
+    // work out which parts of this GrappaNexus a change to an attribute calls for rebuilding
+    private int updatesFor(Attribute attr)
+    {
+        int updates = 0;
+        switch (this.element.getType()) {
+            case NODE:
+                switch (attr.getKey()) {
+                    case POS_KEY:
+                    case WIDTH_KEY:
+                    case HEIGHT_KEY:
+                    case SHAPE_KEY:
+                        updates = SHAPE_UPDATE;
+                        if (Grappa.autoPositionNodeLabel) {
+                            updates |= TEXT_UPDATE;
                         }
-                    } else if ((IMAGE_HASH == attrHash && IMAGE_ATTR.equals(attrName))) {
-                        if (this.lastImageUpdate < thisUpdate) {
-                            updateImage();
+                        break;
+                    case LP_KEY:
+                        // in case it is used
+                        if (Grappa.autoPositionNodeLabel) {
+                            throw unmonitored(attr.getName());
                         }
-                    } else if ((MINBOX_HASH == attrHash && MINBOX_ATTR.equals(attrName))
-                        ||
-                        (MINSIZE_HASH == attrHash && MINSIZE_ATTR.equals(attrName))) {
-                        this.bbox = null;
-                    } else {
-                        throw new InternalError("update called for \"" + this.element.getName()
-                            + "\" with an unmonitored attribute: " + attrName);
-                    }
-                    break;
-            }
+                        updates = TEXT_UPDATE;
+                        break;
+                    case LABEL_KEY:
+                    case FONTSIZE_KEY:
+                    case FONTNAME_KEY:
+                    case FONTSTYLE_KEY:
+                        updates = TEXT_UPDATE;
+                        break;
+                    case STYLE_KEY:
+                        updates = STYLE_UPDATE | styleTextUpdate(attr);
+                        break;
+                    case COLOR_KEY:
+                    case FONTCOLOR_KEY:
+                        updates = DECORATION_UPDATE;
+                        break;
+                    case IMAGE_KEY:
+                        updates = IMAGE_UPDATE;
+                        break;
+                    default:
+                        throw unmonitored(attr.getName());
+                }
+                break;
+            case EDGE:
+                switch (attr.getKey()) {
+                    case POS_KEY:
+                        updates = SHAPE_UPDATE;
+                        break;
+                    case LABEL_KEY:
+                    case LP_KEY:
+                    case HEADLABEL_KEY:
+                    case HEADLP_KEY:
+                    case TAILLABEL_KEY:
+                    case TAILLP_KEY:
+                    case FONTSIZE_KEY:
+                    case FONTNAME_KEY:
+                    case FONTSTYLE_KEY:
+                        updates = TEXT_UPDATE;
+                        break;
+                    case STYLE_KEY:
+                        updates = STYLE_UPDATE | styleTextUpdate(attr);
+                        break;
+                    case COLOR_KEY:
+                    case DIR_KEY:
+                    case FONTCOLOR_KEY:
+                        updates = DECORATION_UPDATE;
+                        break;
+                    case IMAGE_KEY:
+                        updates = IMAGE_UPDATE;
+                        break;
+                    default:
+                        throw unmonitored(attr.getName());
+                }
+                break;
+            case SUBGRAPH:
+                switch (attr.getKey()) {
+                    case LABEL_KEY:
+                    case LP_KEY:
+                    case FONTSIZE_KEY:
+                    case FONTNAME_KEY:
+                    case FONTSTYLE_KEY:
+                        updates = TEXT_UPDATE;
+                        break;
+                    case STYLE_KEY:
+                        updates = STYLE_UPDATE | styleTextUpdate(attr);
+                        break;
+                    case COLOR_KEY:
+                    case FONTCOLOR_KEY:
+                        updates = DECORATION_UPDATE;
+                        break;
+                    case IMAGE_KEY:
+                        updates = IMAGE_UPDATE;
+                        break;
+                    case MINBOX_KEY:
+                    case MINSIZE_KEY:
+                        updates = BOUNDS_UPDATE;
+                        break;
+                    default:
+                        throw unmonitored(attr.getName());
+                }
+                break;
+        }
+        return updates;
+    }
 
-            this.element.release();
-        } else {
-            throw new InternalError("update called for shape of element \"" + this.element.getName()
-                + "\" without proper format");
+    // rebuild the given parts of this GrappaNexus, unless they were rebuilt since the update time
+    private void applyUpdates(int updates, long thisUpdate)
+    {
+        if (this.element == null || !this.element.reserve()) {
+            return;
+        }
+
+        // reset
+        this.objs = null;
+
+        // same order as rebuild()
+        if ((updates & STYLE_UPDATE) != 0 && this.lastStyleUpdate < thisUpdate) {
+            updateStyle();
+        }
+        if ((updates & DECORATION_UPDATE) != 0 && this.lastDecorationUpdate < thisUpdate) {
+            updateDecoration();
+        }
+        if ((updates & SHAPE_UPDATE) != 0 && this.lastShapeUpdate < thisUpdate) {
+            updateShape();
+        }
+        if ((updates & TEXT_UPDATE) != 0 && this.lastTextUpdate < thisUpdate) {
+            updateText();
+        }
+        if ((updates & IMAGE_UPDATE) != 0 && this.lastImageUpdate < thisUpdate) {
+            updateImage();
+        }
+        if ((updates & BOUNDS_UPDATE) != 0) {
+            this.bbox = null;
+        }
+        this.element.release();
+    }
+
+    // the text depends on the style as well when the font info the style carries changes
+    private int styleTextUpdate(Attribute attr)
+    {
+        Object value = attr.getValue();
+        Integer fontStyle = (value instanceof GrappaStyle) ? ((GrappaStyle) value).font_style : null;
+        Integer current = (this.style == null) ? null : this.style.font_style;
+        if (fontStyle == null ? current == null : fontStyle.equals(current)) {
+            return 0;
         }
+        return TEXT_UPDATE;
+    }
+
+    private InternalError unmonitored(String attrName)
+    {
+        return new InternalError("update called for \"" + this.element.getName()
+            + "\" with an unmonitored attribute: " + attrName);
     }
 
     /**
@@ -14,6 +14,7 @@
 import java.awt.Color;
 import java.awt.Font;
 import java.util.Hashtable;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This class translates and encapsulates information provided by the <I>style</I> attribute.
@@ -228,6 +229,21 @@ public class GrappaStyle implements GrappaConstants, Cloneable
 
     private static Hashtable<String, BasicStroke> strokeCache = new Hashtable<>(4);
 
+    /**
+     * Largest number of styles kept for each element type by <code>getStyle</code>.
+     */
+    public final static int STYLE_CACHE_LIMIT = 256;
+
+    // parsed styles by element type (indexed by the type bits) and style string
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static final ConcurrentHashMap<String, GrappaStyle>[] styleCache = new ConcurrentHashMap[16];
+
+    static {
+        for (int i = 0; i < styleCache.length; i++) {
+            styleCache[i] = new ConcurrentHashMap<>();
+        }
+    }
+
     static {
         styleTypes.put("solid", new Integer(STYLE_SOLID));
         styleTypes.put("dashed", new Integer(STYLE_DASHED));
@@ -306,6 +322,9 @@ public class GrappaStyle implements GrappaConstants, Cloneable
 
     BasicStroke stroke = defaultStroke;
 
+    // whether this style is the one given out by getStyle to everyone asking for it, and so cannot change
+    private boolean shared = false;
+
     // //////////////////////////////////////////////////////////////////////
     //
     // Constructors
@@ -319,12 +338,47 @@ public class GrappaStyle implements GrappaConstants, Cloneable
      * @param style the <code>String</code> that specifies the style info. format is: style1,style2(extra2),...,styleN.
      */
     public GrappaStyle(int type, String style)
+    {
+        checkType(type);
+        this.elementType = type;
+        updateStyle(style);
+    }
+
+    /**
+     * Get the shared <code>GrappaStyle</code> object for a style description string. Styles are parsed once and kept,
+     * for up to <code>STYLE_CACHE_LIMIT</code> distinct strings per element type, so that elements with the same style
+     * share the same object. The cache is thread-safe. A shared style cannot be changed: <code>updateStyle</code>
+     * throws an exception, so clone the style first to change it.
+     *
+     * @param type element type to associate with the style.
+     * @param style the <code>String</code> that specifies the style info. format is: style1,style2(extra2),...,styleN.
+     * @return the shared style, or a new unshared one if the cache for the type is full
+     */
+    public static GrappaStyle getStyle(int type, String style)
+    {
+        checkType(type);
+        if (style == null) {
+            return new GrappaStyle(type, style);
+        }
+        ConcurrentHashMap<String, GrappaStyle> cache = styleCache[type];
+        GrappaStyle known = cache.get(style);
+        if (known != null) {
+            return known;
+        }
+        GrappaStyle parsed = new GrappaStyle(type, style);
+        if (cache.size() >= STYLE_CACHE_LIMIT) {
+            return parsed;
+        }
+        parsed.shared = true;
+        known = cache.putIfAbsent(style, parsed);
+        return (known == null) ? parsed : known;
+    }
+
+    private static void checkType(int type)
     {
         if ((type & (GrappaConstants.NODE | GrappaConstants.EDGE | GrappaConstants.SUBGRAPH | GrappaConstants.SYSTEM)) != type) {
             throw new RuntimeException("type must specify node, edge or subgraph");
         }
-        this.elementType = type;
-        updateStyle(style);
     }
 
     // //////////////////////////////////////////////////////////////////////
@@ -337,9 +391,14 @@ public GrappaStyle(int type, String style)
      * Update this GrappaStyle based on the supplied style string.
      *
      * @param style a style specification
+     * @exception IllegalStateException if this style is shared
+     * @see GrappaStyle#getStyle(int, String)
      */
-    public void updateStyle(String style)
+    public void updateStyle(String style) throws IllegalStateException
     {
+        if (this.shared) {
+            throw new IllegalStateException("a shared style cannot be changed, clone it first");
+        }
         this.stroke = defaultStroke;
 
         this.line_color = STYLE_LINE_COLOR_DEFAULT;
@@ -1154,6 +1213,7 @@ public Object clone()
         try {
             GrappaStyle copy = (GrappaStyle) super.clone();
             copy.dash = getDash();
+            copy.shared = false;
             return copy;
         } catch (CloneNotSupportedException e) {
             // this shouldn't happen, since we are Cloneable
@@ -699,6 +699,26 @@ public static boolean filterGraph(Graph graph, Object connector)
      * @return true if the filtering completed successfully, false otherwise.
      */
     public static boolean filterGraph(Graph graph, Object connector, String preamble)
+    {
+        return filterGraph(graph, connector, preamble, false);
+    }
+
+    /**
+     * Filter the supplied graph using the given connector, as described above. When <code>update</code> is false,
+     * the existing graph is reset and its contents are replaced with the graph that is read in. When it is true, the
+     * graph that is read in is applied to the existing graph with a <code>GraphUpdater</code>: existing elements,
+     * their attributes and their observers are kept and only attributes whose values changed (typically layout
+     * attributes such as <code>pos</code>, <code>bb</code> and <code>lp</code>) are set, so that only the affected
+     * elements are redrawn. In update mode, the graph is not restored if the filter output cannot be parsed.
+     *
+     * @param graph the graph to be processed and reset or updated
+     * @param connector a Process or URLConnector that provides an input and output stream
+     * @param preamble if not null, a string sent to filter prior to graph
+     * @param update true to update the existing graph in place rather than resetting it
+     * @return true if the filtering completed successfully, false otherwise.
+     * @see GraphUpdater
+     */
+    public static boolean filterGraph(Graph graph, Object connector, String preamble, boolean update)
     {
         if (connector == null) {
             return false;
@@ -821,6 +841,15 @@ public static boolean filterGraph(Graph graph, Object connector, String preamble
             Grappa.displayException(ex);
             return false;
         }
+        if (update) {
+            try {
+                GraphUpdater.update(graph, fromReader, graph.getErrorWriter());
+            } catch (Exception ex) {
+                Grappa.displayException(ex);
+                return false;
+            }
+            return status;
+        }
         graph.reset();
         Parser program = new Parser(fromReader, graph.getErrorWriter(), graph);
         try {
@@ -0,0 +1,167 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+/**
+ * A map from element id keys to elements, using open addressing over parallel arrays of primitive keys and values so
+ * that neither lookups nor insertions allocate key objects. The map is not synchronized.
+ *
+ * @version $Id$
+ * @see Graph#idMapValue(int, int)
+ */
+final class IdElementMap
+{
+    private static final int INITIAL_CAPACITY = 64;
+
+    // id keys are never 0, since the type bits are always set
+    private static final long FREE = 0L;
+
+    private long[] keys;
+
+    private Element[] values;
+
+    private int size;
+
+    IdElementMap()
+    {
+        clear();
+    }
+
+    /**
+     * Get the element stored under the given key.
+     *
+     * @param key the id key
+     * @return the element, or null if there is none
+     */
+    Element get(long key)
+    {
+        long[] k = this.keys;
+        int mask = k.length - 1;
+        for (int slot = slot(key, mask);; slot = (slot + 1) & mask) {
+            long probe = k[slot];
+            if (probe == key) {
+                return this.values[slot];
+            }
+            if (probe == FREE) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Store an element under the given key.
+     *
+     * @param key the id key
+     * @param elem the element
+     * @return the element previously stored under the key, or null
+     */
+    Element put(long key, Element elem)
+    {
+        if (key == FREE) {
+            throw new IllegalArgumentException("invalid id key (" + key + ")");
+        }
+        int mask = this.keys.length - 1;
+        int slot = slot(key, mask);
+        for (; this.keys[slot] != FREE; slot = (slot + 1) & mask) {
+            if (this.keys[slot] == key) {
+                Element old = this.values[slot];
+                this.values[slot] = elem;
+                return old;
+            }
+        }
+        this.keys[slot] = key;
+        this.values[slot] = elem;
+        if (++this.size * 4 > this.keys.length * 3) {
+            resize(this.keys.length * 2);
+        }
+        return null;
+    }
+
+    /**
+     * Remove the element stored under the given key.
+     *
+     * @param key the id key
+     * @return the element removed, or null
+     */
+    Element remove(long key)
+    {
+        int mask = this.keys.length - 1;
+        int slot = slot(key, mask);
+        for (; this.keys[slot] != key; slot = (slot + 1) & mask) {
+            if (this.keys[slot] == FREE) {
+                return null;
+            }
+        }
+        Element old = this.values[slot];
+        this.size--;
+
+        // shift back the entries following the removed one so that no probe sequence is broken
+        int gap = slot;
+        for (int next = (gap + 1) & mask; this.keys[next] != FREE; next = (next + 1) & mask) {
+            int home = slot(this.keys[next], mask);
+            // move the entry unless its home slot lies cyclically in (gap, next]
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                this.keys[gap] = this.keys[next];
+                this.values[gap] = this.values[next];
+                gap = next;
+            }
+        }
+        this.keys[gap] = FREE;
+        this.values[gap] = null;
+        return old;
+    }
+
+    /**
+     * Get the number of elements in the map.
+     *
+     * @return the number of elements
+     */
+    int size()
+    {
+        return this.size;
+    }
+
+    /**
+     * Remove all elements from the map.
+     */
+    void clear()
+    {
+        this.keys = new long[INITIAL_CAPACITY];
+        this.values = new Element[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    private void resize(int capacity)
+    {
+        long[] oldKeys = this.keys;
+        Element[] oldValues = this.values;
+        this.keys = new long[capacity];
+        this.values = new Element[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int slot = slot(oldKeys[i], mask);
+                while (this.keys[slot] != FREE) {
+                    slot = (slot + 1) & mask;
+                }
+                this.keys[slot] = oldKeys[i];
+                this.values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    // the key holds the element type in its low bits and sequential ids above, so mix before masking
+    private static int slot(long key, int mask)
+    {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & mask;
+    }
+}
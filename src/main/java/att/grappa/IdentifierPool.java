@@ -0,0 +1,168 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+/**
+ * A pool of the short strings (attribute names, keywords and common values) read by the <code>Lexer</code>, so that
+ * each distinct string is represented by a single <code>String</code> object. Lookups are made directly on the
+ * characters collected by the lexer, so no <code>String</code> is created for a string that is already pooled; since
+ * pooled strings are shared, their cached hash codes (and so the name hash of any <code>Attribute</code> built from
+ * them) are only computed once. Every pool starts out holding the attribute names defined in
+ * <code>GrappaConstants</code>, so the names read by the lexer are the very constants used to recognize them and
+ * comparing them takes a single reference check.
+ * <p>
+ * Strings longer than <code>MAX_LENGTH</code> characters are not pooled, nor is anything once the pool holds
+ * <code>MAX_ENTRIES</code> strings. A pool is not thread-safe; it may be shared by lexers that run one after the
+ * other, for instance when the same kind of graph is read repeatedly.
+ * </p>
+ *
+ * @version $Id$
+ * @see Lexer#setIdentifierPool(IdentifierPool)
+ */
+public final class IdentifierPool
+{
+    /**
+     * Length of the longest string that is pooled.
+     */
+    public static final int MAX_LENGTH = 32;
+
+    /**
+     * Maximum number of strings held by a pool.
+     */
+    public static final int MAX_ENTRIES = 1 << 16;
+
+    // the attribute names every pool starts out with
+    private static final IdentifierPool CONSTANTS = new IdentifierPool(false);
+
+    static {
+        for (Field field : GrappaConstants.class.getFields()) {
+            if (field.getType() == String.class && Modifier.isStatic(field.getModifiers())
+                && field.getName().endsWith("_ATTR")) {
+                try {
+                    CONSTANTS.add((String) field.get(null));
+                } catch (IllegalAccessException ex) {
+                    // public constant, cannot happen
+                }
+            }
+        }
+    }
+
+    private String[] table;
+
+    private int size;
+
+    /**
+     * Creates a pool holding the attribute names defined in <code>GrappaConstants</code>.
+     */
+    public IdentifierPool()
+    {
+        this(true);
+    }
+
+    private IdentifierPool(boolean seeded)
+    {
+        if (seeded) {
+            this.table = CONSTANTS.table.clone();
+            this.size = CONSTANTS.size;
+        } else {
+            this.table = new String[256];
+            this.size = 0;
+        }
+    }
+
+    /**
+     * Get the pooled string with the given contents, adding it to the pool if needed.
+     *
+     * @param chars the characters of the string
+     * @return a string equal to <code>chars</code>
+     */
+    public String get(CharSequence chars)
+    {
+        int len = chars.length();
+        if (len > MAX_LENGTH) {
+            return chars.toString();
+        }
+        int hash = 0;
+        for (int i = 0; i < len; i++) {
+            hash = 31 * hash + chars.charAt(i);
+        }
+        int mask = this.table.length - 1;
+        int slot = mix(hash) & mask;
+        String str;
+        while ((str = this.table[slot]) != null) {
+            if (str.hashCode() == hash && str.contentEquals(chars)) {
+                return str;
+            }
+            slot = (slot + 1) & mask;
+        }
+        str = chars.toString();
+        if (this.size < MAX_ENTRIES) {
+            this.table[slot] = str;
+            if (++this.size * 2 > this.table.length) {
+                rehash();
+            }
+        }
+        return str;
+    }
+
+    // add a string, unless an equal one is already pooled
+    private void add(String str)
+    {
+        if (str != null && str.length() <= MAX_LENGTH) {
+            get(str);
+        }
+    }
+
+    /**
+     * Get the number of strings in the pool.
+     *
+     * @return the number of pooled strings
+     */
+    public int size()
+    {
+        return this.size;
+    }
+
+    /**
+     * Remove all strings from the pool, except the attribute names defined in <code>GrappaConstants</code>.
+     */
+    public void clear()
+    {
+        this.table = CONSTANTS.table.clone();
+        this.size = CONSTANTS.size;
+    }
+
+    private void rehash()
+    {
+        String[] old = this.table;
+        this.table = new String[old.length * 2];
+        int mask = this.table.length - 1;
+        for (String str : old) {
+            if (str != null) {
+                int slot = mix(str.hashCode()) & mask;
+                while (this.table[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                this.table[slot] = str;
+            }
+        }
+    }
+
+    // spread the low bits, which are weak in the hash of short strings
+    private static int mix(int hash)
+    {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
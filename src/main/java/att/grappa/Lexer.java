@@ -16,6 +16,7 @@
 import java.util.Hashtable;
 
 import java_cup.runtime.Symbol;
+import java_cup.runtime.lr_parser;
 
 /**
  * A class for doing lexical analysis of <i>dot</i> formatted input.
@@ -46,6 +47,16 @@
      */
     private int current_position = 1;
 
+    /**
+     * Line number at which the last token returned starts.
+     */
+    private int token_line = -1;
+
+    /**
+     * Character position in its line at which the last token returned starts.
+     */
+    private int token_position = 1;
+
     /**
      * EOF constant.
      */
@@ -78,16 +89,76 @@
     private int warning_count = 0;
 
     /**
-     * hash tables to hold symbols
+     * hash table to hold keywords
      */
     private Hashtable<String, Integer> keywords = new Hashtable<>(32);
 
-    private Hashtable<Integer, Integer> char_symbols = new Hashtable<>(32);
+    /**
+     * Size of the character table used to classify characters without boxing; characters at or above this value
+     * fall back to the <code>Character</code> class methods.
+     */
+    private static final int CHAR_TABLE_SIZE = 128;
+
+    /**
+     * Table of single character symbols indexed by character, -1 for none.
+     */
+    private static final int[] char_symbols = new int[CHAR_TABLE_SIZE];
+
+    /**
+     * Table of valid id characters indexed by character.
+     */
+    private static final boolean[] id_chars = new boolean[CHAR_TABLE_SIZE];
+
+    static {
+        java.util.Arrays.fill(char_symbols, -1);
+        char_symbols[';'] = Symbols.SEMI;
+        char_symbols[','] = Symbols.COMMA;
+        char_symbols['{'] = Symbols.LCUR;
+        char_symbols['}'] = Symbols.RCUR;
+        char_symbols['['] = Symbols.LBR;
+        char_symbols[']'] = Symbols.RBR;
+        char_symbols['='] = Symbols.EQUAL;
+        char_symbols[':'] = Symbols.COLON;
+
+        for (int ch = 0; ch < CHAR_TABLE_SIZE; ch++) {
+            id_chars[ch] = Lexer.id_char((char) ch);
+        }
+    }
+
+    /**
+     * Default size of the input buffer used in buffered mode.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
 
     private Reader inReader;
 
+    /**
+     * Input buffer used in buffered mode, null when characters are read one at a time from the Reader.
+     */
+    private char[] inBuffer = null;
+
+    /**
+     * Position of the next unread character in inBuffer.
+     */
+    private int inBufferPos = 0;
+
+    /**
+     * Number of valid characters in inBuffer.
+     */
+    private int inBufferLen = 0;
+
     private PrintWriter errWriter = null;
 
+    /**
+     * parser supplying (possibly recycled) Symbols, if any
+     */
+    private lr_parser symbolSource = null;
+
+    /**
+     * pool of the identifiers and quoted strings returned, if any
+     */
+    private IdentifierPool idPool = new IdentifierPool();
+
     /**
      * common StringBuilder (suggested by Ginny Travers (bbn.com))
      */
@@ -102,6 +173,23 @@
      * @exception IllegalArgumentException whenever <code>input</code> is null
      */
     public Lexer(Reader input, PrintWriter error) throws IllegalArgumentException
+    {
+        this(input, error, Grappa.bufferedLexer);
+    }
+
+    /**
+     * Create an instance of <code>Lexer</code> that reads from <code>input</code> and sends error messages to
+     * <code>error</code>. In buffered mode, the lexer reads blocks of characters from <code>input</code> into its own
+     * buffer rather than calling <code>Reader.read()</code> for each character, so it may read past the end of the
+     * graph.
+     *
+     * @param input input <code>Reader</code> object
+     * @param error error output <code>Writer</code> object
+     * @param buffered true to read <code>input</code> through an internal buffer
+     * @exception IllegalArgumentException whenever <code>input</code> is null
+     * @see Grappa#bufferedLexer
+     */
+    public Lexer(Reader input, PrintWriter error, boolean buffered) throws IllegalArgumentException
     {
         super();
         if (input == null) {
@@ -109,6 +197,75 @@ public Lexer(Reader input, PrintWriter error) throws IllegalArgumentException
         }
         this.inReader = input;
         this.errWriter = error;
+        if (buffered) {
+            this.inBuffer = new char[DEFAULT_BUFFER_SIZE];
+        }
+    }
+
+    /**
+     * Set the parser from which this lexer obtains the Symbols it returns, so that Symbols released by the parser are
+     * reused. When not set, a new Symbol is allocated for every token.
+     *
+     * @param parser the parser consuming the tokens of this lexer, or null
+     * @see lr_parser#new_symbol(int, int, int, Object)
+     */
+    public void setSymbolSource(lr_parser parser)
+    {
+        this.symbolSource = parser;
+    }
+
+    /**
+     * Set the pool used to share the strings of identifiers and quoted strings read by this lexer. Each lexer starts
+     * with a pool of its own; a pool can be shared with lexers used later on, or set to null to create a new string for
+     * every token.
+     *
+     * @param pool the pool to use, or null
+     */
+    public void setIdentifierPool(IdentifierPool pool)
+    {
+        this.idPool = pool;
+    }
+
+    /**
+     * Get the pool used to share the strings read by this lexer.
+     *
+     * @return the identifier pool, or null
+     */
+    public IdentifierPool getIdentifierPool()
+    {
+        return this.idPool;
+    }
+
+    /**
+     * Get the string collected in cmnstrbuf, from the identifier pool when there is one.
+     */
+    private String collected()
+    {
+        if (this.idPool == null) {
+            return this.cmnstrbuf.toString();
+        }
+        return this.idPool.get(this.cmnstrbuf);
+    }
+
+    /**
+     * Get a Symbol for a token.
+     */
+    private Symbol symbol(int id, Object value)
+    {
+        if (this.symbolSource == null) {
+            return new Symbol(id, value);
+        }
+        return this.symbolSource.new_symbol(id, -1, -1, value);
+    }
+
+    /**
+     * Check if this lexer reads its input through an internal buffer.
+     *
+     * @return true in buffered mode
+     */
+    public boolean isBuffered()
+    {
+        return (this.inBuffer != null);
     }
 
     /**
@@ -131,21 +288,35 @@ public void init() throws IOException
         this.keywords.put("--", new Integer(Symbols.ND_EDGE_OP));
         this.keywords.put("->", new Integer(Symbols.D_EDGE_OP));
 
-        // set up the table of single character symbols
-        this.char_symbols.put(new Integer(';'), new Integer(Symbols.SEMI));
-        this.char_symbols.put(new Integer(','), new Integer(Symbols.COMMA));
-        this.char_symbols.put(new Integer('{'), new Integer(Symbols.LCUR));
-        this.char_symbols.put(new Integer('}'), new Integer(Symbols.RCUR));
-        this.char_symbols.put(new Integer('['), new Integer(Symbols.LBR));
-        this.char_symbols.put(new Integer(']'), new Integer(Symbols.RBR));
-        this.char_symbols.put(new Integer('='), new Integer(Symbols.EQUAL));
-        this.char_symbols.put(new Integer(':'), new Integer(Symbols.COLON));
-
         // read two characters of lookahead
         advance();
         advance();
     }
 
+    /**
+     * Read the next character of input, either directly from the Reader or from the input buffer when in buffered
+     * mode.
+     *
+     * @return the next character or EOF_CHAR
+     * @exception IOException whenever a problem reading from <code>input</code> is encountered
+     */
+    private int read() throws IOException
+    {
+        if (this.inBuffer == null) {
+            return this.inReader.read();
+        }
+        if (this.inBufferPos >= this.inBufferLen) {
+            int count = this.inReader.read(this.inBuffer, 0, this.inBuffer.length);
+            if (count <= 0) {
+                this.inBufferPos = this.inBufferLen = 0;
+                return EOF_CHAR;
+            }
+            this.inBufferLen = count;
+            this.inBufferPos = 0;
+        }
+        return this.inBuffer[this.inBufferPos++];
+    }
+
     /**
      * Advance the scanner one character in the input stream. This moves next_char2 to next_char and then reads a new
      * next_char2.
@@ -166,7 +337,7 @@ public void advance() throws IOException
             if (this.next_char == EOF_CHAR) {
                 this.next_char2 = EOF_CHAR;
             } else {
-                this.next_char2 = this.inReader.read();
+                this.next_char2 = read();
             }
         }
 
@@ -175,13 +346,13 @@ public void advance() throws IOException
          */
         if (this.next_char == '\\' && (this.next_char2 == '\n' || this.next_char2 == '\r')) {
             this.next_char = this.next_char2;
-            this.next_char2 = this.inReader.read();
+            this.next_char2 = read();
             if (this.next_char == '\r' && this.next_char2 == '\n') {
                 this.next_char = this.next_char2;
-                this.next_char2 = this.inReader.read();
+                this.next_char2 = read();
             }
             this.next_char = this.next_char2;
-            this.next_char2 = this.inReader.read();
+            this.next_char2 = read();
         }
 
         /*
@@ -189,7 +360,7 @@ public void advance() throws IOException
          */
         if (this.next_char == '\r') {
             if (this.next_char2 == '\n') {
-                this.next_char2 = this.inReader.read();
+                this.next_char2 = read();
             }
             this.next_char = '\n';
         }
@@ -247,6 +418,46 @@ public String getLocation()
         return "[" + this.current_line + "(" + this.current_position + ")]";
     }
 
+    /**
+     * Get the current line number.
+     *
+     * @return the line of the input being read
+     */
+    public int getLine()
+    {
+        return this.current_line;
+    }
+
+    /**
+     * Get the current character position in the line.
+     *
+     * @return the position in the line of the input being read
+     */
+    public int getColumn()
+    {
+        return this.current_position;
+    }
+
+    /**
+     * Get the line number at which the last token returned starts.
+     *
+     * @return the line of the last token
+     */
+    public int getTokenLine()
+    {
+        return this.token_line;
+    }
+
+    /**
+     * Get the character position in its line at which the last token returned starts.
+     *
+     * @return the position in the line of the last token
+     */
+    public int getTokenColumn()
+    {
+        return this.token_position;
+    }
+
     /**
      * Emit a warning message. The message will be marked with both the current line number and the position in the
      * line. Messages are printed on print stream passed to Lexer (if any).
@@ -287,16 +498,25 @@ public static boolean id_char(char ch)
      *
      * @param ch the character in question.
      */
-    private int find_single_char(int ch)
+    private static int find_single_char(int ch)
     {
-        Integer result;
+        if (ch >= 0 && ch < CHAR_TABLE_SIZE) {
+            return char_symbols[ch];
+        }
+        return -1;
+    }
 
-        result = this.char_symbols.get(new Integer((char) ch));
-        if (result == null) {
-            return -1;
-        } else {
-            return result.intValue();
+    /**
+     * Check if character is a valid id character, using the pre-computed table where possible.
+     *
+     * @param ch the character in question.
+     */
+    private static boolean is_id_char(int ch)
+    {
+        if (ch >= 0 && ch < CHAR_TABLE_SIZE) {
+            return id_chars[ch];
         }
+        return (ch != EOF_CHAR && Lexer.id_char((char) ch));
     }
 
     /**
@@ -375,17 +595,17 @@ private Symbol do_quote_string() throws IOException
                     break;
                 }
                 // otherwise record the char and move on
-                this.cmnstrbuf.append(new Character((char) this.next_char));
+                this.cmnstrbuf.append((char) this.next_char);
                 advance();
             }
 
-            result_str = this.cmnstrbuf.toString();
+            result_str = collected();
         }
 
         // advance past the closing double quote and build a return Symbol
         advance();
         this.haveId = true;
-        return new Symbol(Symbols.ATOM, result_str);
+        return symbol(Symbols.ATOM, result_str);
     }
 
     /**
@@ -413,7 +633,7 @@ private Symbol do_html_string() throws IOException
                     angles--;
                 }
 
-                this.cmnstrbuf.append(new Character((char) this.next_char));
+                this.cmnstrbuf.append((char) this.next_char);
                 advance();
             } while (angles > 0);
 
@@ -423,7 +643,7 @@ private Symbol do_html_string() throws IOException
         // advance past the closing double quote and build a return Symbol
         advance();
         this.haveId = true;
-        return new Symbol(Symbols.ATOM, result_str);
+        return symbol(Symbols.ATOM, result_str);
     }
 
     /**
@@ -446,13 +666,13 @@ private Symbol do_id() throws IOException
             advance();
 
             // collect up characters while they fit in id
-            while (id_char(this.next_char)) {
+            while (is_id_char(this.next_char)) {
                 buffer[0] = (char) this.next_char;
                 this.cmnstrbuf.append(buffer, 0, 1);
                 advance();
             }
             // extract a string and try to look it up as a keyword
-            result_str = this.cmnstrbuf.toString();
+            result_str = collected();
         }
 
         keyword_num = this.keywords.get(result_str);
@@ -460,12 +680,12 @@ private Symbol do_id() throws IOException
         // if we found something, return that keyword
         if (keyword_num != null) {
             this.haveId = false;
-            return new Symbol(keyword_num.intValue());
+            return symbol(keyword_num.intValue(), null);
         }
 
         // otherwise build and return an id Symbol with an attached string
         this.haveId = true;
-        return new Symbol(Symbols.ATOM, result_str);
+        return symbol(Symbols.ATOM, result_str);
     }
 
     /**
@@ -486,18 +706,21 @@ private Symbol real_next_token() throws IOException
                 continue;
             }
 
+            this.token_line = this.current_line;
+            this.token_position = this.current_position;
+
             // look for edge operator
             if (this.next_char == '-') {
                 if (this.next_char2 == '>') {
                     advance();
                     advance();
                     this.haveId = false;
-                    return new Symbol(Symbols.D_EDGE_OP);
+                    return symbol(Symbols.D_EDGE_OP, null);
                 } else if (this.next_char2 == '-') {
                     advance();
                     advance();
                     this.haveId = false;
-                    return new Symbol(Symbols.ND_EDGE_OP);
+                    return symbol(Symbols.ND_EDGE_OP, null);
                 }
             }
 
@@ -505,7 +728,7 @@ private Symbol real_next_token() throws IOException
             sym_num = find_single_char(this.next_char);
             if (sym_num != -1) {
                 if (sym_num == Symbols.LCUR && !this.haveId) {
-                    Symbol result = new Symbol(Symbols.SUBGRAPH);
+                    Symbol result = symbol(Symbols.SUBGRAPH, null);
                     this.haveId = true;
                     retreat();
                     return result;
@@ -514,7 +737,7 @@ private Symbol real_next_token() throws IOException
                 // found one -- advance past it and return a Symbol for it
                 advance();
                 this.haveId = false;
-                return new Symbol(sym_num);
+                return symbol(sym_num, null);
             }
 
             // look for quoted string
@@ -535,14 +758,14 @@ private Symbol real_next_token() throws IOException
             }
 
             // look for an id or keyword
-            if (id_char(this.next_char)) {
+            if (is_id_char(this.next_char)) {
                 return do_id();
             }
 
             // look for EOF
             if (this.next_char == EOF_CHAR) {
                 this.haveId = false;
-                return new Symbol(Symbols.EOF);
+                return symbol(Symbols.EOF, null);
             }
 
             // if we get here, we have an unrecognized character
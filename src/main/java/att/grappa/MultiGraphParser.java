@@ -0,0 +1,271 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A class for parsing input containing several <i>dot</i> graphs one after another. Since the <code>Parser</code>
+ * accepts exactly one graph per input, the input is split at top-level graph boundaries (the closing brace of each
+ * graph body) and each graph is parsed by its own <code>Parser</code>, concurrently on the supplied executor.
+ * Splitting honors quoted strings, html-like strings and comments. Location information in error messages is relative
+ * to the start of the graph being parsed.
+ *
+ * @version $Id$
+ */
+public abstract class MultiGraphParser
+{
+    /**
+     * Parse all graphs in the input using a pool of <code>threads</code> worker threads.
+     *
+     * @param input input <code>Reader</code> object
+     * @param errorWriter error output <code>Writer</code> object (or null to suppress error output)
+     * @param threads the number of worker threads
+     * @return the parsed graphs, in input order
+     * @exception Exception if the input cannot be read or any graph fails to parse
+     */
+    public static List<Graph> parse(Reader input, PrintWriter errorWriter, int threads) throws Exception
+    {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive (" + threads + ")");
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            return parse(input, errorWriter, executor);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Parse all graphs in the input on the given executor. Each graph is submitted as soon as it has been read, so
+     * reading the input overlaps with parsing. The executor is not shut down.
+     *
+     * @param input input <code>Reader</code> object
+     * @param errorWriter error output <code>Writer</code> object (or null to suppress error output)
+     * @param executor the executor that runs the individual parses
+     * @return the parsed graphs, in input order
+     * @exception Exception if the input cannot be read or any graph fails to parse; the exception thrown by the
+     *                first failing graph in input order is re-thrown
+     */
+    public static List<Graph> parse(Reader input, PrintWriter errorWriter, ExecutorService executor)
+        throws Exception
+    {
+        if (input == null) {
+            throw new IllegalArgumentException("Reader cannot be null");
+        }
+        List<Future<Graph>> futures = new ArrayList<>();
+        try {
+            GraphSplitter splitter = new GraphSplitter(input);
+            String text;
+            while ((text = splitter.next()) != null) {
+                futures.add(executor.submit(new GraphTask(text, errorWriter)));
+            }
+            List<Graph> graphs = new ArrayList<>(futures.size());
+            for (Future<Graph> future : futures) {
+                graphs.add(future.get());
+            }
+            return graphs;
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw ex;
+        } finally {
+            for (Future<Graph> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Split the input into the text of the individual graphs it contains, without parsing them.
+     *
+     * @param input input <code>Reader</code> object
+     * @return the text of each graph, in input order
+     * @exception IOException if the input cannot be read
+     */
+    public static List<String> split(Reader input) throws IOException
+    {
+        List<String> texts = new ArrayList<>();
+        GraphSplitter splitter = new GraphSplitter(input);
+        String text;
+        while ((text = splitter.next()) != null) {
+            texts.add(text);
+        }
+        return texts;
+    }
+
+    private static class GraphTask implements Callable<Graph>
+    {
+        private final String text;
+
+        private final PrintWriter errorWriter;
+
+        GraphTask(String text, PrintWriter errorWriter)
+        {
+            this.text = text;
+            this.errorWriter = errorWriter;
+        }
+
+        @Override
+        public Graph call() throws Exception
+        {
+            Parser parser = new Parser(new StringReader(this.text), this.errorWriter, null, true);
+            parser.parse();
+            return parser.getGraph();
+        }
+    }
+
+    /**
+     * Reads the input one graph at a time, tracking brace depth outside of strings and comments in the same way as
+     * the <code>Lexer</code>.
+     */
+    static class GraphSplitter
+    {
+        private static final int NORMAL = 0;
+
+        private static final int QUOTE = 1;
+
+        private static final int HTML = 2;
+
+        private static final int LINE_COMMENT = 3;
+
+        private static final int BLOCK_COMMENT = 4;
+
+        private final Reader reader;
+
+        private final char[] buffer = new char[Lexer.DEFAULT_BUFFER_SIZE];
+
+        private int bufferPos = 0;
+
+        private int bufferLen = 0;
+
+        private final StringBuilder text = new StringBuilder();
+
+        GraphSplitter(Reader reader)
+        {
+            this.reader = reader;
+        }
+
+        private int peek() throws IOException
+        {
+            if (this.bufferPos >= this.bufferLen) {
+                this.bufferLen = this.reader.read(this.buffer, 0, this.buffer.length);
+                this.bufferPos = 0;
+                if (this.bufferLen <= 0) {
+                    this.bufferLen = 0;
+                    return -1;
+                }
+            }
+            return this.buffer[this.bufferPos];
+        }
+
+        private int read() throws IOException
+        {
+            int ch = peek();
+            if (ch != -1) {
+                this.bufferPos++;
+                this.text.append((char) ch);
+            }
+            return ch;
+        }
+
+        /**
+         * Get the text of the next graph.
+         *
+         * @return the text up to and including the closing brace of the next graph, any trailing text that is not
+         *         white space or comments, or null at end of input
+         */
+        String next() throws IOException
+        {
+            int state = NORMAL;
+            int depth = 0;
+            int angles = 0;
+            boolean content = false;
+            int ch;
+
+            this.text.setLength(0);
+            while ((ch = read()) != -1) {
+                switch (state) {
+                    case NORMAL:
+                        if (ch == '"') {
+                            state = QUOTE;
+                            content = true;
+                        } else if (ch == '<') {
+                            state = HTML;
+                            angles = 1;
+                            content = true;
+                        } else if (ch == '/' && peek() == '*') {
+                            read();
+                            state = BLOCK_COMMENT;
+                        } else if (ch == '/' && peek() == '/') {
+                            read();
+                            state = LINE_COMMENT;
+                        } else if (ch == '{') {
+                            depth++;
+                            content = true;
+                        } else if (ch == '}') {
+                            content = true;
+                            if (--depth == 0) {
+                                return this.text.toString();
+                            }
+                        } else if (!Character.isWhitespace((char) ch)) {
+                            content = true;
+                        }
+                        break;
+                    case QUOTE:
+                        if (ch == '\\' && peek() == '"') {
+                            read();
+                        } else if (ch == '"') {
+                            state = NORMAL;
+                        }
+                        break;
+                    case HTML:
+                        if (ch == '<') {
+                            angles++;
+                        } else if (ch == '>' && --angles == 0) {
+                            state = NORMAL;
+                        }
+                        break;
+                    case LINE_COMMENT:
+                        if (ch == '\\' && (peek() == '\n' || peek() == '\r')) {
+                            read();
+                        } else if (ch == '\n' || ch == '\r' || ch == '\f') {
+                            state = NORMAL;
+                        }
+                        break;
+                    case BLOCK_COMMENT:
+                        if (ch == '*' && peek() == '/') {
+                            read();
+                            state = NORMAL;
+                        }
+                        break;
+                }
+            }
+            return content ? this.text.toString() : null;
+        }
+    }
+}
@@ -11,12 +11,24 @@
 package att.grappa;
 
 import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
-import java.util.Vector;
+import java.util.Set;
 
 /**
  * This class describes a node.
+ * <p>
+ * The edges of a node are kept in plain arrays, and neither updating nor reading them is synchronized. Code that
+ * changes a graph while another thread reads it should hold the lock of the <code>Graph</code> object, as
+ * <code>GrappaPanel</code> does while painting and <code>Element.bdfs</code> does while searching. Edges can be
+ * visited without allocating an <code>Enumeration</code> through <code>getInEdgeCount()</code> and
+ * <code>getInEdge(int)</code>, and their out-edge counterparts.
+ * </p>
  *
  * @version $Id$
  * @author <a href="mailto:john@research.att.com">John Mocenigo</a>, <a href="http://www.research.att.com">Research @
@@ -31,11 +43,25 @@ public class Node extends Element
      */
     public final static String defaultNamePrefix = "N";
 
-    // vector of edges going into the node
-    private Vector<Edge> inEdges = null;
+    private static final Edge[] NO_EDGES = new Edge[0];
 
-    // vector of edges going out of the node
-    private Vector<Edge> outEdges = null;
+    // edges going into the node, in the order they were added
+    private Edge[] inEdges = NO_EDGES;
+
+    private int inCount = 0;
+
+    // edges going out of the node, in the order they were added
+    private Edge[] outEdges = NO_EDGES;
+
+    private int outCount = 0;
+
+    // number of edges above which the edges of a node are also grouped by the node at their other end
+    private static final int INDEX_THRESHOLD = 16;
+
+    // in-edges by tail node and out-edges by head node, once there are enough of them
+    private Map<Node, List<Edge>> inEdgesByTail = null;
+
+    private Map<Node, List<Edge>> outEdgesByHead = null;
 
     /**
      * Use this constructor when creating a node within a subgraph.
@@ -45,10 +71,26 @@ public class Node extends Element
      */
     public Node(Subgraph subg, String name)
     {
-        super(GrappaConstants.NODE, subg);
+        super(GrappaConstants.NODE, subg, SHARED_ATTRS_OF_INTEREST);
         setName(name);
+    }
 
-        nodeAttrsOfInterest();
+    /**
+     * Constructor used by <code>GraphBuilder</code> for a node whose name has already been checked against the graph.
+     *
+     * @param subg the parent subgraph.
+     * @param name the name of this node, or null to generate one.
+     * @param attrsOfInterest the names of the attributes of interest, shared with other nodes
+     */
+    Node(Subgraph subg, String name, Set<String> attrsOfInterest)
+    {
+        super(GrappaConstants.NODE, subg, attrsOfInterest);
+        if (name == null) {
+            setName();
+        } else {
+            this.name = name;
+            subg.addNode(this);
+        }
     }
 
     /**
@@ -63,18 +105,11 @@ public Node(Subgraph subg)
     }
 
     // a listing of the attributes of interest for Nodes
-    private void nodeAttrsOfInterest()
-    {
-        attrOfInterest(DISTORTION_ATTR);
-        attrOfInterest(HEIGHT_ATTR);
-        attrOfInterest(ORIENTATION_ATTR);
-        attrOfInterest(PERIPHERIES_ATTR);
-        attrOfInterest(POS_ATTR);
-        attrOfInterest(SIDES_ATTR);
-        attrOfInterest(SKEW_ATTR);
-        attrOfInterest(STYLE_ATTR);
-        attrOfInterest(WIDTH_ATTR);
-    }
+    static final String[] NODE_ATTRS_OF_INTEREST = { DISTORTION_ATTR, HEIGHT_ATTR, ORIENTATION_ATTR,
+        PERIPHERIES_ATTR, POS_ATTR, SIDES_ATTR, SKEW_ATTR, STYLE_ATTR, WIDTH_ATTR };
+
+    // the attributes of interest of a node, shared by all nodes until changed for one of them
+    static final Set<String> SHARED_ATTRS_OF_INTEREST = sharedAttrsOfInterest(NODE_ATTRS_OF_INTEREST);
 
     // override Element methods
 
@@ -169,19 +204,11 @@ public void setName(String newName) throws IllegalArgumentException
 
     private void resetEdgeNames()
     {
-        Edge edge;
-
-        if (this.inEdges != null) {
-            for (int i = 0; i < this.inEdges.size(); i++) {
-                edge = this.inEdges.elementAt(i);
-                edge.canonName = null;
-            }
+        for (int i = 0; i < this.inCount; i++) {
+            this.inEdges[i].canonName = null;
         }
-        if (this.outEdges != null) {
-            for (int i = 0; i < this.outEdges.size(); i++) {
-                edge = this.outEdges.elementAt(i);
-                edge.canonName = null;
-            }
+        for (int i = 0; i < this.outCount; i++) {
+            this.outEdges[i].canonName = null;
         }
     }
 
@@ -193,25 +220,38 @@ private void resetEdgeNames()
      * @param inEdge if set true, add to inEdges dictionary otherwise add to outEdges dictionary.
      * @see Edge
      */
-    synchronized public void addEdge(Edge edge, boolean inEdge)
+    public void addEdge(Edge edge, boolean inEdge)
     {
         if (edge == null) {
             return;
         }
         if (inEdge) {
-            if (this.inEdges == null) {
-                this.inEdges = new Vector<>();
+            if (indexOf(this.inEdges, this.inCount, edge, edge.inIndex) >= 0) {
+                return;
             }
-            if (!this.inEdges.contains(edge)) {
-                this.inEdges.addElement(edge);
+            if (this.inCount == this.inEdges.length) {
+                this.inEdges = grow(this.inEdges);
+            }
+            edge.inIndex = this.inCount;
+            this.inEdges[this.inCount++] = edge;
+            if (this.inEdgesByTail != null) {
+                addToIndex(this.inEdgesByTail, edge.getTail(), edge);
+            } else if (this.inCount > INDEX_THRESHOLD) {
+                this.inEdgesByTail = buildIndex(this.inEdges, this.inCount, true);
             }
         } else {
-            if (this.outEdges == null) {
-                this.outEdges = new Vector<>();
+            if (indexOf(this.outEdges, this.outCount, edge, edge.outIndex) >= 0) {
+                return;
             }
-            this.outEdges.addElement(edge);
-            if (!this.outEdges.contains(edge)) {
-                this.outEdges.addElement(edge);
+            if (this.outCount == this.outEdges.length) {
+                this.outEdges = grow(this.outEdges);
+            }
+            edge.outIndex = this.outCount;
+            this.outEdges[this.outCount++] = edge;
+            if (this.outEdgesByHead != null) {
+                addToIndex(this.outEdgesByHead, edge.getHead(), edge);
+            } else if (this.outCount > INDEX_THRESHOLD) {
+                this.outEdgesByHead = buildIndex(this.outEdges, this.outCount, false);
             }
         }
     }
@@ -225,12 +265,15 @@ synchronized public void addEdge(Edge edge, boolean inEdge)
      */
     public Edge findOutEdgeByKey(Node head, String key)
     {
-        if (head == null || key == null || this.outEdges == null) {
+        if (head == null || key == null) {
             return null;
         }
+        if (this.outEdgesByHead != null) {
+            return findEdgeByKey(this.outEdgesByHead.get(head), key);
+        }
         Edge edge = null;
-        for (int i = 0; i < this.outEdges.size(); i++) {
-            edge = this.outEdges.elementAt(i);
+        for (int i = 0; i < this.outCount; i++) {
+            edge = this.outEdges[i];
             if (head == edge.getHead() && key.equals(edge.getKey())) {
                 return edge;
             }
@@ -247,12 +290,15 @@ public Edge findOutEdgeByKey(Node head, String key)
      */
     public Edge findInEdgeByKey(Node tail, String key)
     {
-        if (tail == null || key == null || this.inEdges == null) {
+        if (tail == null || key == null) {
             return null;
         }
+        if (this.inEdgesByTail != null) {
+            return findEdgeByKey(this.inEdgesByTail.get(tail), key);
+        }
         Edge edge = null;
-        for (int i = 0; i < this.inEdges.size(); i++) {
-            edge = this.inEdges.elementAt(i);
+        for (int i = 0; i < this.inCount; i++) {
+            edge = this.inEdges[i];
             if (tail == edge.getTail() && key.equals(edge.getKey())) {
                 return edge;
             }
@@ -290,24 +336,191 @@ public GrappaPoint getCenterPoint()
      * @param inEdge if set true, remove from inEdges dictionary otherwise remove from outEdges dictionary.
      * @see Edge
      */
-    synchronized public void removeEdge(Edge edge, boolean inEdge)
+    public void removeEdge(Edge edge, boolean inEdge)
     {
         if (edge == null) {
             return;
         }
         if (inEdge) {
-            if (this.inEdges == null) {
+            int index = indexOf(this.inEdges, this.inCount, edge, edge.inIndex);
+            if (index < 0) {
                 return;
             }
-            this.inEdges.removeElement(edge);
+            this.inCount--;
+            System.arraycopy(this.inEdges, index + 1, this.inEdges, index, this.inCount - index);
+            this.inEdges[this.inCount] = null;
+            edge.inIndex = -1;
+            if (this.inEdgesByTail != null) {
+                removeFromIndex(this.inEdgesByTail, edge.getTail(), edge);
+            }
         } else {
-            if (this.outEdges == null) {
+            int index = indexOf(this.outEdges, this.outCount, edge, edge.outIndex);
+            if (index < 0) {
                 return;
             }
-            this.outEdges.removeElement(edge);
+            this.outCount--;
+            System.arraycopy(this.outEdges, index + 1, this.outEdges, index, this.outCount - index);
+            this.outEdges[this.outCount] = null;
+            edge.outIndex = -1;
+            if (this.outEdgesByHead != null) {
+                removeFromIndex(this.outEdgesByHead, edge.getHead(), edge);
+            }
         }
     }
 
+    // position of the edge in the array, given the position recorded in the edge when it was added; since removals
+    // only move the following edges down, the edge is looked for from there down first
+    private static int indexOf(Edge[] edges, int count, Edge edge, int hint)
+    {
+        if (hint < 0) {
+            return -1;
+        }
+        for (int i = Math.min(hint, count - 1); i >= 0; i--) {
+            if (edges[i] == edge) {
+                return i;
+            }
+        }
+        for (int i = hint + 1; i < count; i++) {
+            if (edges[i] == edge) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static Map<Node, List<Edge>> buildIndex(Edge[] edges, int count, boolean byTail)
+    {
+        Map<Node, List<Edge>> index = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            addToIndex(index, byTail ? edges[i].getTail() : edges[i].getHead(), edges[i]);
+        }
+        return index;
+    }
+
+    private static void addToIndex(Map<Node, List<Edge>> index, Node node, Edge edge)
+    {
+        List<Edge> edges = index.get(node);
+        if (edges == null) {
+            index.put(node, (edges = new ArrayList<>(1)));
+        }
+        edges.add(edge);
+    }
+
+    private static void removeFromIndex(Map<Node, List<Edge>> index, Node node, Edge edge)
+    {
+        List<Edge> edges = index.get(node);
+        if (edges == null) {
+            return;
+        }
+        for (int i = edges.size() - 1; i >= 0; i--) {
+            if (edges.get(i) == edge) {
+                edges.remove(i);
+                break;
+            }
+        }
+        if (edges.isEmpty()) {
+            index.remove(node);
+        }
+    }
+
+    private static Edge findEdgeByKey(List<Edge> edges, String key)
+    {
+        if (edges != null) {
+            for (Edge edge : edges) {
+                if (key.equals(edge.getKey())) {
+                    return edge;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the edges directed to this node from the given one, if the edges of this node are grouped by their other end.
+     *
+     * @param tail the node at the tail of the edges
+     * @return the edges, in the order they were added, or null if they are not grouped
+     */
+    List<Edge> indexedInEdges(Node tail)
+    {
+        if (this.inEdgesByTail == null) {
+            return null;
+        }
+        List<Edge> edges = this.inEdgesByTail.get(tail);
+        return (edges == null) ? Collections.<Edge> emptyList() : edges;
+    }
+
+    /**
+     * Get the edges directed from this node to the given one, if the edges of this node are grouped by their other
+     * end.
+     *
+     * @param head the node at the head of the edges
+     * @return the edges, in the order they were added, or null if they are not grouped
+     */
+    List<Edge> indexedOutEdges(Node head)
+    {
+        if (this.outEdgesByHead == null) {
+            return null;
+        }
+        List<Edge> edges = this.outEdgesByHead.get(head);
+        return (edges == null) ? Collections.<Edge> emptyList() : edges;
+    }
+
+    private static Edge[] grow(Edge[] edges)
+    {
+        Edge[] grown = new Edge[Math.max(4, edges.length * 2)];
+        System.arraycopy(edges, 0, grown, 0, edges.length);
+        return grown;
+    }
+
+    /**
+     * Get the number of edges directed to this node.
+     *
+     * @return the number of inbound edges
+     */
+    public int getInEdgeCount()
+    {
+        return this.inCount;
+    }
+
+    /**
+     * Get an edge directed to this node. Edges are numbered in the order they were added.
+     *
+     * @param index the position of the edge, from 0 to <code>getInEdgeCount()-1</code>
+     * @return the inbound edge at that position
+     */
+    public Edge getInEdge(int index)
+    {
+        if (index < 0 || index >= this.inCount) {
+            throw new IndexOutOfBoundsException("in-edge index (" + index + ") out of range");
+        }
+        return this.inEdges[index];
+    }
+
+    /**
+     * Get the number of edges directed from this node.
+     *
+     * @return the number of outbound edges
+     */
+    public int getOutEdgeCount()
+    {
+        return this.outCount;
+    }
+
+    /**
+     * Get an edge directed from this node. Edges are numbered in the order they were added.
+     *
+     * @param index the position of the edge, from 0 to <code>getOutEdgeCount()-1</code>
+     * @return the outbound edge at that position
+     */
+    public Edge getOutEdge(int index)
+    {
+        if (index < 0 || index >= this.outCount) {
+            throw new IndexOutOfBoundsException("out-edge index (" + index + ") out of range");
+        }
+        return this.outEdges[index];
+    }
+
     /**
      * Print the node description to the provided stream.
      *
@@ -362,7 +575,7 @@ public static int attributeType(String attrname)
      */
     public Enumeration<Edge> edgeElements()
     {
-        return new Enumerator<>(this.inEdges, this.outEdges);
+        return new Enumerator(true, true);
     }
 
     /**
@@ -372,7 +585,7 @@ public Enumeration<Edge> edgeElements()
      */
     public Enumeration<Edge> inEdgeElements()
     {
-        return new Enumerator<>(this.inEdges, null);
+        return new Enumerator(true, false);
     }
 
     /**
@@ -382,59 +595,50 @@ public Enumeration<Edge> inEdgeElements()
      */
     public Enumeration<Edge> outEdgeElements()
     {
-        return new Enumerator<>(null, this.outEdges);
+        return new Enumerator(false, true);
     }
 
-    class Enumerator<T> implements Enumeration<T>
+    // visits the edges from the last added to the first, so that edges can be removed along the way
+    class Enumerator implements Enumeration<Edge>
     {
         int inCnt = 0;
 
         int outCnt = 0;
 
-        Vector<T> inEdges = null;
-
-        Vector<T> outEdges = null;
-
-        Enumerator(Vector<T> inEdges, Vector<T> outEdges)
+        Enumerator(boolean inEdges, boolean outEdges)
         {
-            this.inCnt = (inEdges == null) ? 0 : inEdges.size();
-            this.outCnt = (outEdges == null) ? 0 : outEdges.size();
-            this.inEdges = inEdges;
-            this.outEdges = outEdges;
+            this.inCnt = inEdges ? Node.this.inCount : 0;
+            this.outCnt = outEdges ? Node.this.outCount : 0;
         }
 
         @Override
         public boolean hasMoreElements()
         {
-            int tmp;
-            if (this.inCnt > 0 && this.inCnt > (tmp = this.inEdges.size())) {
-                this.inCnt = tmp;
+            if (this.inCnt > Node.this.inCount) {
+                this.inCnt = Node.this.inCount;
             }
-            if (this.outCnt > 0 && this.outCnt > (tmp = this.outEdges.size())) {
-                this.outCnt = tmp;
+            if (this.outCnt > Node.this.outCount) {
+                this.outCnt = Node.this.outCount;
             }
             return ((this.inCnt + this.outCnt) > 0);
         }
 
         @Override
-        public T nextElement()
+        public Edge nextElement()
         {
-            synchronized (Node.this) {
-                int tmp;
-                if (this.inCnt > 0 && this.inCnt > (tmp = this.inEdges.size())) {
-                    this.inCnt = tmp;
-                }
-                if (this.inCnt > 0) {
-                    return this.inEdges.elementAt(--this.inCnt);
-                }
-                if (this.outCnt > 0 && this.outCnt > (tmp = this.outEdges.size())) {
-                    this.outCnt = tmp;
-                }
-                if (this.outCnt > 0) {
-                    return this.outEdges.elementAt(--this.outCnt);
-                }
-                throw new NoSuchElementException("Node$Enumerator");
+            if (this.inCnt > Node.this.inCount) {
+                this.inCnt = Node.this.inCount;
+            }
+            if (this.inCnt > 0) {
+                return Node.this.inEdges[--this.inCnt];
+            }
+            if (this.outCnt > Node.this.outCount) {
+                this.outCnt = Node.this.outCount;
+            }
+            if (this.outCnt > 0) {
+                return Node.this.outEdges[--this.outCnt];
             }
+            throw new NoSuchElementException("Node$Enumerator");
         }
     }
 }
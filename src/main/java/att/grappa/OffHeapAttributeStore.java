@@ -0,0 +1,252 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Storage outside of the Java heap for numeric and geometric attribute values: records of up to four doubles holding
+ * the converted values, and short strings holding their text exactly as it was given. Space is carved from direct
+ * buffers of one megabyte each, in units of sixteen bytes, and freed records are reused. Since the garbage collector
+ * neither sees nor traces the stored values, a graph holding millions of positions and sizes this way keeps far fewer
+ * live objects on the heap. The buffers are released when the store itself is no longer reachable. Allocating and
+ * freeing space is synchronized on the store, since reading an attribute can store the value it converts; reading and
+ * writing the contents of a record is not.
+ *
+ * @version $Id$
+ * @see Graph#setOffHeapAttributes(boolean)
+ */
+final class OffHeapAttributeStore
+{
+    /**
+     * Largest number of doubles in a record.
+     */
+    static final int MAX_RECORD_LENGTH = 4;
+
+    /**
+     * Longest string stored.
+     */
+    static final int MAX_STRING_LENGTH = 126;
+
+    // space is managed in units of two doubles; a record takes one or two units, a string (with its length) up to eight
+    private static final int UNIT_BYTES = 16;
+
+    private static final int MAX_UNITS = 8;
+
+    private static final int SLAB_SHIFT = 16;
+
+    private static final int SLAB_UNITS = 1 << SLAB_SHIFT;
+
+    // replaced, or written again, whenever a slab is added, so that readers see the slab of any handle handed out
+    private volatile ByteBuffer[] slabs = new ByteBuffer[4];
+
+    private int slabCount = 0;
+
+    // first unit that was never handed out
+    private int top = 0;
+
+    // freed records, by number of units
+    private final int[][] free = new int[MAX_UNITS][16];
+
+    private final int[] freeCount = new int[MAX_UNITS];
+
+    private long usedUnits = 0;
+
+    /**
+     * Get space for a record.
+     *
+     * @param length the number of doubles in the record, at most <code>MAX_RECORD_LENGTH</code>
+     * @return the handle of the record
+     */
+    synchronized int allocate(int length)
+    {
+        return allocateUnits(units(length));
+    }
+
+    /**
+     * Give back the space of a record.
+     *
+     * @param handle the handle of the record
+     * @param length the number of doubles in the record, as given when it was allocated
+     */
+    synchronized void free(int handle, int length)
+    {
+        int units = units(length);
+        release(handle, units);
+        this.usedUnits -= units;
+    }
+
+    /**
+     * Get a double from a record.
+     *
+     * @param handle the handle of the record
+     * @param index the position of the double in the record
+     * @return the stored value
+     */
+    double getDouble(int handle, int index)
+    {
+        return this.slabs[handle >>> SLAB_SHIFT].getDouble(offset(handle, index));
+    }
+
+    /**
+     * Store a double in a record.
+     *
+     * @param handle the handle of the record
+     * @param index the position of the double in the record
+     * @param value the value to store
+     */
+    void putDouble(int handle, int index, double value)
+    {
+        this.slabs[handle >>> SLAB_SHIFT].putDouble(offset(handle, index), value);
+    }
+
+    /**
+     * Store a string, if it is short enough and only has characters that fit in a byte.
+     *
+     * @param text the string to store
+     * @return the handle of the stored string, or -1 if it cannot be stored
+     */
+    synchronized int putString(String text)
+    {
+        int length = text.length();
+        if (length > MAX_STRING_LENGTH) {
+            return -1;
+        }
+        for (int i = 0; i < length; i++) {
+            if (text.charAt(i) > 0xFF) {
+                return -1;
+            }
+        }
+        int handle = allocateUnits(stringUnits(length));
+        ByteBuffer slab = this.slabs[handle >>> SLAB_SHIFT];
+        int offset = offset(handle, 0);
+        slab.put(offset, (byte) length);
+        for (int i = 0; i < length; i++) {
+            slab.put(offset + 1 + i, (byte) text.charAt(i));
+        }
+        return handle;
+    }
+
+    /**
+     * Get a stored string.
+     *
+     * @param handle the handle of the string
+     * @return a new String equal to the one stored
+     */
+    String getString(int handle)
+    {
+        ByteBuffer slab = this.slabs[handle >>> SLAB_SHIFT];
+        int offset = offset(handle, 0);
+        char[] chars = new char[slab.get(offset) & 0xFF];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) (slab.get(offset + 1 + i) & 0xFF);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Give back the space of a stored string.
+     *
+     * @param handle the handle of the string
+     */
+    synchronized void freeString(int handle)
+    {
+        int units = stringUnits(this.slabs[handle >>> SLAB_SHIFT].get(offset(handle, 0)) & 0xFF);
+        release(handle, units);
+        this.usedUnits -= units;
+    }
+
+    /**
+     * Get the number of bytes taken by the records in use.
+     *
+     * @return the bytes in use
+     */
+    synchronized long getUsedBytes()
+    {
+        return this.usedUnits * UNIT_BYTES;
+    }
+
+    /**
+     * Get the number of bytes reserved outside of the heap by this store.
+     *
+     * @return the bytes reserved
+     */
+    synchronized long getReservedBytes()
+    {
+        return (long) this.slabCount * SLAB_UNITS * UNIT_BYTES;
+    }
+
+    private int allocateUnits(int units)
+    {
+        int handle;
+        if (this.freeCount[units - 1] > 0) {
+            handle = this.free[units - 1][--this.freeCount[units - 1]];
+        } else {
+            // keep records from straddling a slab boundary
+            while (units > 1 && (this.top & (SLAB_UNITS - 1)) + units > SLAB_UNITS) {
+                release(this.top++, 1);
+            }
+            if (this.top >= this.slabCount << SLAB_SHIFT) {
+                addSlab();
+            }
+            handle = this.top;
+            this.top += units;
+        }
+        this.usedUnits += units;
+        return handle;
+    }
+
+    private void release(int handle, int units)
+    {
+        int[] list = this.free[units - 1];
+        if (this.freeCount[units - 1] == list.length) {
+            int[] grown = new int[list.length * 2];
+            System.arraycopy(list, 0, grown, 0, list.length);
+            this.free[units - 1] = list = grown;
+        }
+        list[this.freeCount[units - 1]++] = handle;
+    }
+
+    private void addSlab()
+    {
+        ByteBuffer[] table = this.slabs;
+        if (this.slabCount == table.length) {
+            if (this.slabCount == 1 << (31 - SLAB_SHIFT)) {
+                throw new RuntimeException("off-heap attribute store is full");
+            }
+            ByteBuffer[] grown = new ByteBuffer[table.length * 2];
+            System.arraycopy(table, 0, grown, 0, this.slabCount);
+            table = grown;
+        }
+        table[this.slabCount++] = ByteBuffer.allocateDirect(SLAB_UNITS * UNIT_BYTES).order(ByteOrder.nativeOrder());
+        this.slabs = table;
+    }
+
+    private static int offset(int handle, int index)
+    {
+        return (handle & (SLAB_UNITS - 1)) * UNIT_BYTES + (index << 3);
+    }
+
+    private static int units(int length)
+    {
+        if (length < 1 || length > MAX_RECORD_LENGTH) {
+            throw new IllegalArgumentException("bad record length (" + length + ")");
+        }
+        return (length + 1) >> 1;
+    }
+
+    // units taken by a string of the given length, preceded by its length
+    private static int stringUnits(int length)
+    {
+        return (length + UNIT_BYTES) / UNIT_BYTES;
+    }
+}
@@ -5,14 +5,24 @@
 
 package att.grappa;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.io.Reader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Vector;
 
+import att.grappa.util.MappedFileReader;
 import java_cup.runtime.Symbol;
 
 /** CUP v0.10k generated parser.
@@ -280,6 +290,7 @@ public void user_init() throws java.lang.Exception
 
         this.lexer.init();
         this.action_obj.graph = this.theGraph;
+        this.action_obj.listener = this.listener;
         // action_obj.parser = this;
 
     }
@@ -289,6 +300,16 @@ public void user_init() throws java.lang.Exception
     public java_cup.runtime.Symbol scan()
         throws java.lang.Exception
     {
+        if (this.recovering) {
+            try {
+                return this.lexer.next_token(this.debugLevel);
+            } catch (GraphParserException ex) {
+                // the lexer only gives up at the end of input, so treat this as the end
+                this.errors.add(new GraphParserError(this.lexer.getLine(), this.lexer.getColumn(), ex.getMessage(),
+                    null));
+                return new_symbol(EOF_sym(), -1, -1, null);
+            }
+        }
         return this.lexer.next_token(this.debugLevel);
     }
 
@@ -303,6 +324,16 @@ public java_cup.runtime.Symbol scan()
 
     private int debugLevel = 0;
 
+    private GraphParserListener listener = null;
+
+    private boolean recovering = false;
+
+    private boolean lazyConversion = false;
+
+    private boolean trackNodeMembership = true;
+
+    private List<GraphParserError> errors = new ArrayList<>();
+
     /**
      * Create an instance of <code>Parser</code> with input, error output and a supplied <code>Graph</code> object. The
      * graph object is cleared (reset) before new graph components are added to it by this parsing operation.
@@ -312,12 +343,64 @@ public java_cup.runtime.Symbol scan()
      * @param graph <code>Graph</code> object for storing parsed graph information (or null to create a new object)
      */
     public Parser(Reader inputReader, PrintWriter errorWriter, Graph graph)
+    {
+        this(inputReader, errorWriter, graph, Grappa.bufferedLexer);
+    }
+
+    /**
+     * Create an instance of <code>Parser</code> with input, error output and a supplied <code>Graph</code> object,
+     * choosing whether the lexer reads its input through an internal buffer.
+     *
+     * @param inputReader input <code>Reader</code> object
+     * @param errorWriter error output <code>Writer</code> object (or null to suppress error output)
+     * @param graph <code>Graph</code> object for storing parsed graph information (or null to create a new object)
+     * @param bufferedLexer true to use the buffered lexer mode
+     * @see Lexer#Lexer(Reader, PrintWriter, boolean)
+     */
+    public Parser(Reader inputReader, PrintWriter errorWriter, Graph graph, boolean bufferedLexer)
     {
         super();
         this.inReader = inputReader;
         this.errWriter = errorWriter;
         this.theGraph = graph;
-        this.lexer = new Lexer(inputReader, errorWriter);
+        this.lexer = new Lexer(inputReader, errorWriter, bufferedLexer);
+        this.lexer.setSymbolSource(this);
+    }
+
+    /**
+     * Create an instance of <code>Parser</code> that reads a memory-mapped file channel, starting at its current
+     * position. The file contents are decoded directly into the buffer of the lexer. The channel is not closed by the
+     * parser.
+     *
+     * @param channel input <code>FileChannel</code> object
+     * @param charset the character set of the file
+     * @param errorWriter error output <code>Writer</code> object (or null to suppress error output)
+     * @param graph <code>Graph</code> object for storing parsed graph information (or null to create a new object)
+     * @exception IOException if the channel cannot be accessed
+     * @see MappedFileReader
+     */
+    public Parser(FileChannel channel, Charset charset, PrintWriter errorWriter, Graph graph) throws IOException
+    {
+        this(new MappedFileReader(channel, charset), errorWriter, graph, true);
+    }
+
+    /**
+     * Parse the file at the given path through a memory-mapped channel, which is closed when parsing completes.
+     *
+     * @param path the file to parse
+     * @param charset the character set of the file
+     * @param errorWriter error output <code>Writer</code> object (or null to suppress error output)
+     * @param graph <code>Graph</code> object for storing parsed graph information (or null to create a new object)
+     * @return the parsed graph
+     * @exception Exception if the file cannot be read or parsed
+     */
+    public static Graph parseFile(Path path, Charset charset, PrintWriter errorWriter, Graph graph) throws Exception
+    {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Parser parser = new Parser(channel, charset, errorWriter, graph);
+            parser.parse();
+            return parser.getGraph();
+        }
     }
 
     /**
@@ -385,6 +468,28 @@ public Lexer getLexer()
         return this.lexer;
     }
 
+    /**
+     * Set the listener that receives the parsed graph as a stream of events. When a listener is set, no
+     * <code>Graph</code> is built by the parser and <code>getGraph</code> returns the graph, if any, supplied when the
+     * parser was created, unchanged. The listener must be set before parsing begins.
+     *
+     * @param listener the listener to notify, or null to build a graph
+     */
+    public void setListener(GraphParserListener listener)
+    {
+        this.listener = listener;
+    }
+
+    /**
+     * Get the listener, if any, set for this parser.
+     *
+     * @return the listener for this parser.
+     */
+    public GraphParserListener getListener()
+    {
+        return this.listener;
+    }
+
     /**
      * Get the error writer, if any, for this parser.
      *
@@ -408,11 +513,105 @@ public int getDebugLevel()
     }
 
     /**
-     * Report a fatal error. Calling this method will throw a <code>GraphParserException</code>.
+     * Choose whether the parser recovers from errors. By default, parsing stops with a
+     * <code>GraphParserException</code> at the first error. A recovering parser instead records each error, skips
+     * the statement in which it occurred and carries on with the next statement of the enclosing graph or subgraph
+     * body, so that parsing always completes; the graph built from the statements that could be parsed is then
+     * available from <code>getGraph</code> and the errors from <code>getErrors</code>. Exceptions raised while
+     * creating graph elements (for instance a duplicate edge in a strict graph) are not recovered from.
+     *
+     * @param recovering true to recover from errors
+     */
+    public void setRecovering(boolean recovering)
+    {
+        this.recovering = recovering;
+    }
+
+    /**
+     * Check if this parser recovers from errors.
+     *
+     * @return true if errors are recovered from
+     * @see Parser#setRecovering(boolean)
+     */
+    public boolean isRecovering()
+    {
+        return this.recovering;
+    }
+
+    /**
+     * Choose whether the attribute values of parsed nodes and edges are converted from their string form while
+     * parsing. By default, each value is converted as it is parsed, so that a malformed value (such as
+     * <code>width=abc</code>) makes parsing fail, and a value is printed back in its canonical form (for instance,
+     * <code>style="bold,filled"</code> prints as <code>"filled,bold"</code>). When conversion is lazy, values are kept
+     * as parsed and only converted the first time their typed value is asked for, which saves the conversion of values
+     * that are never used (e.g., when a graph is only read and printed again); a malformed value is then only reported,
+     * by an <code>IllegalArgumentException</code>, when it is first used, and values are printed as they were parsed.
+     * Default attributes of subgraphs are always converted while parsing.
+     *
+     * @param lazy true to convert attribute values on first use
+     */
+    public void setLazyConversion(boolean lazy)
+    {
+        this.lazyConversion = lazy;
+    }
+
+    /**
+     * Check if this parser leaves the conversion of attribute values until their first use.
+     *
+     * @return true if conversion is lazy
+     * @see Parser#setLazyConversion(boolean)
+     */
+    public boolean isLazyConversion()
+    {
+        return this.lazyConversion;
+    }
+
+    /**
+     * Choose whether, when a listener is set, the parser remembers the names of the nodes seen so far. This is what
+     * lets it report a node that first appears as an edge end-point only once, and expand a subgraph used as an edge
+     * end to the nodes created in it, as when a graph is built; but the memory it takes grows with the number of
+     * nodes. When membership is not tracked, the parser runs in memory bounded by the size of the largest statement
+     * and subgraph: every edge end-point is reported as a node each time it appears, and a subgraph used as an edge
+     * end stands for every node named in it, including nodes that appeared earlier elsewhere. Tracking is on by
+     * default.
+     *
+     * @param track false to stop remembering node names
+     * @see GraphParserListener
+     */
+    public void setTrackNodeMembership(boolean track)
+    {
+        this.trackNodeMembership = track;
+    }
+
+    /**
+     * Check if this parser remembers the names of the nodes seen so far when a listener is set.
+     *
+     * @return true if node membership is tracked
+     * @see Parser#setTrackNodeMembership(boolean)
+     */
+    public boolean isTrackingNodeMembership()
+    {
+        return this.trackNodeMembership;
+    }
+
+    /**
+     * Get the errors recorded while parsing in recovering mode, in the order they were found.
+     *
+     * @return the recorded errors, possibly an empty list
+     * @see Parser#setRecovering(boolean)
+     */
+    public List<GraphParserError> getErrors()
+    {
+        return Collections.unmodifiableList(this.errors);
+    }
+
+    /**
+     * Report a fatal error. Calling this method will throw a <code>GraphParserException</code>, unless the parser is
+     * recovering from errors, in which case the error is recorded instead.
      *
      * @param message the error message to send to the error stream and include in the thrown exception
-     * @param info not used
-     * @exception GraphParserException whenver this method is called
+     * @param info the offending Symbol, if any
+     * @exception GraphParserException whenver this method is called and the parser is not recovering from errors
      */
     @Override
     public void report_error(String message, Object info) throws GraphParserException
@@ -421,9 +620,96 @@ public void report_error(String message, Object info) throws GraphParserExceptio
         if (this.errWriter != null) {
             this.errWriter.println("ERROR: Parser" + loc + ": " + message);
         }
+        if (this.recovering) {
+            Object value = (info instanceof Symbol) ? ((Symbol) info).value : null;
+            this.errors.add(new GraphParserError(this.lexer.getTokenLine(), this.lexer.getTokenColumn(), message,
+                (value instanceof String) ? (String) value : null));
+            return;
+        }
         throw new GraphParserException("at " + loc + ": " + message);
     }
 
+    /**
+     * Give up on a syntax error that could not be recovered from. When recovering from errors, the error is recorded
+     * and parsing ends normally, keeping what was parsed so far.
+     *
+     * @param cur_token the current lookahead Symbol.
+     * @exception java.lang.Exception if the parser is not recovering from errors
+     */
+    @Override
+    public void unrecovered_syntax_error(Symbol cur_token) throws java.lang.Exception
+    {
+        if (!this.recovering) {
+            super.unrecovered_syntax_error(cur_token);
+            return;
+        }
+        report_error((cur_token.sym == EOF_sym()) ? "Unexpected end of input" : "Couldn't repair and continue parse",
+            cur_token);
+        done_parsing();
+    }
+
+    /**
+     * Recover from a syntax error. The grammar only provides for an error in place of the whole graph, so rather
+     * than looking for a state that can shift the error Symbol, the parse stack is popped back to the start of the
+     * statement in which the error occurred, Symbols are discarded until parsing can go on from there for
+     * <code>error_sync_size()</code> Symbols, and parsing resumes. This is only done when the parser is recovering
+     * from errors.
+     *
+     * @param debug should we produce debugging messages as we parse.
+     */
+    @Override
+    protected boolean error_recovery(boolean debug) throws java.lang.Exception
+    {
+        if (!this.recovering) {
+            return super.error_recovery(debug);
+        }
+
+        /* find the innermost point at which a statement can start */
+        int depth = this.stack.size();
+        while (depth > 0 && get_action(this.stack.elementAt(depth - 1).parse_state, Symbols.NODE) <= 0) {
+            depth--;
+        }
+        if (depth == 0) {
+            // not inside a graph body
+            return false;
+        }
+        while (this.stack.size() > depth) {
+            this.stack.pop();
+            this.tos--;
+        }
+        this.action_obj.discardStatement(openBodies());
+        if (debug) {
+            debug_message("# Statement start found (#" + this.stack.peek().parse_state + ")");
+        }
+
+        /* skip input until we can parse forward from the start of a statement */
+        read_lookahead();
+        while (!try_parse_ahead(debug)) {
+            if (this.lookahead[0].sym == EOF_sym()) {
+                return false;
+            }
+            restart_lookahead();
+        }
+        parse_lookahead(debug);
+        return true;
+    }
+
+    /*
+     * Count the graph and subgraph bodies open on the parse stack, i.e. the left braces that were shifted.
+     */
+    private int openBodies()
+    {
+        int count = 0;
+        for (int i = 1; i < this.stack.size(); i++) {
+            Symbol sym = this.stack.elementAt(i);
+            if (sym.sym == Symbols.LCUR
+                && get_action(this.stack.elementAt(i - 1).parse_state, Symbols.LCUR) == sym.parse_state + 1) {
+                count++;
+            }
+        }
+        return count;
+    }
+
     /**
      * Report a non-fatal error.
      *
@@ -648,6 +934,22 @@ public Graph getGraph()
 
     Vector<Object[]> edges = new Vector<>(8, 4);
 
+    // variables used only when streaming events to a listener
+    GraphParserListener listener = null;
+
+    private static final Attribute[] NO_ATTRS = new Attribute[0];
+
+    private String graphName;
+
+    private Vector<String> subgNames = new Vector<>(8, 4);
+
+    private Vector<Vector<String>> subgNodes = new Vector<>(8, 4);
+
+    private Vector<String> lastSubgNodes;
+
+    // names of the nodes seen so far, so that a subgraph used as an edge end only stands for the nodes created in it
+    private HashSet<String> seenNodes = new HashSet<>();
+
     void appendAttr(String name, String value)
     {
         this.attrs.addElement(new Attribute(this.thisElemType, name, value));
@@ -667,6 +969,11 @@ void attrStmt(int kind, String macroName)
         if (this.attrs.size() == 0) {
             return;
         }
+        if (this.listener != null) {
+            this.listener.defaultAttributes(this.subgNames.lastElement(), kind, attrArray());
+            this.attrs.removeAllElements();
+            return;
+        }
         Attribute attr = null;
         for (int i = 0; i < this.attrs.size(); i++) {
             if ((attr = this.attrs.elementAt(i)).getValue() == null) {
@@ -697,6 +1004,19 @@ void attrStmt(int kind, String macroName)
 
     void startGraph(String name, boolean type, boolean strict)
     {
+        if (this.listener != null) {
+            this.directed = type;
+            this.graphName = name;
+            this.anon_id = 0;
+            this.subgNames.removeAllElements();
+            this.subgNodes.removeAllElements();
+            this.subgNames.addElement(name);
+            this.subgNodes.addElement(null);
+            this.lastSubgNodes = null;
+            this.seenNodes.clear();
+            this.listener.startGraph(name, type, strict);
+            return;
+        }
         if (this.graph == null) {
             this.graph = new Graph(name, type, strict);
         } else {
@@ -710,6 +1030,10 @@ void startGraph(String name, boolean type, boolean strict)
 
     void openGraph()
     {
+        if (this.listener != null) {
+            this.thisElemType = GrappaConstants.SUBGRAPH;
+            return;
+        }
         this.thisGraph = this.rootSubgraph;
         this.thisElemType = GrappaConstants.SUBGRAPH;
         this.parser.debug_message(1, "thisGraph(" + this.thisGraph.getName() + ")");
@@ -719,6 +1043,10 @@ void closeGraph()
     {
         int level = 1;
 
+        if (this.listener != null) {
+            this.listener.endGraph(this.graphName);
+            return;
+        }
         if (this.parser.getErrorWriter() != null && this.parser.getDebugLevel() >= level) {
 
             this.parser.debug_message(level, "parsed graph follows:");
@@ -728,6 +1056,14 @@ void closeGraph()
 
     void openSubg(String name)
     {
+        if (this.listener != null) {
+            String parent = this.subgNames.lastElement();
+            this.subgNames.addElement(name);
+            this.subgNodes.addElement(new Vector<String>(8, 4));
+            this.thisElemType = GrappaConstants.SUBGRAPH;
+            this.listener.startSubgraph(name, parent);
+            return;
+        }
         this.thisGraph = new Subgraph(this.thisGraph, name);
         this.parser.debug_message(1, "thisGraph(" + this.thisGraph.getName() + ")");
         this.thisElemType = GrappaConstants.SUBGRAPH;
@@ -740,6 +1076,20 @@ String anonStr()
 
     void closeSubg()
     {
+        if (this.listener != null) {
+            if (this.subgNames.size() < 2) {
+                this.parser.report_error("parser attempted to go above root Subgraph", null);
+                return;
+            }
+            String name = this.subgNames.remove(this.subgNames.size() - 1);
+            this.lastSubgNodes = this.subgNodes.remove(this.subgNodes.size() - 1);
+            Vector<String> parentNodes = this.subgNodes.lastElement();
+            if (parentNodes != null) {
+                parentNodes.addAll(this.lastSubgNodes);
+            }
+            this.listener.endSubgraph(name);
+            return;
+        }
         this.lastSubgraph = this.thisGraph;
         // getSubgraph() gets the parent subgraph
         this.thisGraph = this.thisGraph.getSubgraph();
@@ -753,8 +1103,44 @@ void closeSubg()
         this.parser.debug_message(1, "thisGraph(" + this.thisGraph.getName() + ")");
     }
 
+    /**
+     * Drop what has been collected for a statement in which a syntax error occurred and close any subgraphs opened in
+     * it, so that parsing can go on with the next statement of the body at the given nesting depth.
+     */
+    void discardStatement(int depth)
+    {
+        this.attrs.removeAllElements();
+        this.nodes.removeAllElements();
+        this.edges.removeAllElements();
+        if (this.listener != null) {
+            while (this.subgNames.size() > Math.max(depth, 1)) {
+                closeSubg();
+            }
+            return;
+        }
+        int level = 0;
+        for (Subgraph subg = this.thisGraph; subg != null; subg = subg.getSubgraph()) {
+            level++;
+        }
+        for (; level > Math.max(depth, 1); level--) {
+            closeSubg();
+        }
+    }
+
     void appendNode(String name, String port)
     {
+        if (this.listener != null) {
+            Vector<String> subgList = this.subgNodes.lastElement();
+            // without tracking, every mention counts as the first one
+            boolean first = !this.parser.isTrackingNodeMembership() || this.seenNodes.add(name);
+            if (first && subgList != null) {
+                // as when building a graph, a node belongs to the subgraph in which it first appears
+                subgList.addElement(name);
+            }
+            this.nodes.addElement(new Object[] { name, port, first ? Boolean.TRUE : null });
+            this.thisElemType = GrappaConstants.NODE;
+            return;
+        }
         if ((this.thisNode = this.rootSubgraph.findNodeByName(name)) == null) {
             this.parser.debug_message(1, "Creating node in subgraph (" + this.thisGraph.getName() + ")...");
             this.thisNode = new Node(this.thisGraph, name);
@@ -772,6 +1158,16 @@ void appendNode(String name, String port)
     void nodeWrap()
     {
         Object[] pair = null;
+        if (this.listener != null) {
+            Attribute[] nodeAttrs = attrArray();
+            String subgName = this.subgNames.lastElement();
+            for (int i = 0; i < this.nodes.size(); i++) {
+                this.listener.node(subgName, (String) this.nodes.elementAt(i)[0], nodeAttrs);
+            }
+            this.attrs.removeAllElements();
+            this.nodes.removeAllElements();
+            return;
+        }
         if (this.nodes.size() > 0 && this.attrs.size() > 0) {
             for (int i = 0; i < this.nodes.size(); i++) {
                 pair = this.nodes.elementAt(i);
@@ -786,9 +1182,16 @@ void bufferEdges()
     {
         Object[] pair = new Object[2];
         if (this.nodes.size() > 0) {
+            if (this.listener != null) {
+                streamNewNodes();
+            }
             pair[0] = this.nodes;
             this.nodes = new Vector<>(8, 4);
             pair[1] = new Boolean(true);
+        } else if (this.listener != null && this.lastSubgNodes != null) {
+            pair[0] = this.lastSubgNodes;
+            this.lastSubgNodes = null;
+            pair[1] = Boolean.FALSE;
         } else if (this.lastSubgraph != null) {
             pair[0] = this.lastSubgraph;
             this.lastSubgraph = null;
@@ -803,6 +1206,10 @@ void bufferEdges()
     void edgeWrap()
     {
         bufferEdges();
+        if (this.listener != null) {
+            streamEdges();
+            return;
+        }
         Attribute key = null;
         Attribute name = null;
         Attribute attr = null;
@@ -878,9 +1285,73 @@ void edgeRHS(Node tail, String tailPort, Object[] headPair, Attribute keyAttr, A
         }
     }
 
+    /**
+     * Report the nodes of an edge end that first appear in it to the listener, so that the listener learns of them
+     * where they are created rather than wherever they are next mentioned.
+     */
+    void streamNewNodes()
+    {
+        String subgName = this.subgNames.lastElement();
+        for (int i = 0; i < this.nodes.size(); i++) {
+            Object[] end = this.nodes.elementAt(i);
+            if (end[2] != null) {
+                this.listener.node(subgName, (String) end[0], NO_ATTRS);
+            }
+        }
+    }
+
+    /**
+     * Report the edges buffered for the current edge statement to the listener.
+     */
+    void streamEdges()
+    {
+        Attribute[] edgeAttrs = attrArray();
+        String subgName = this.subgNames.lastElement();
+        Object[] tailPair = this.edges.elementAt(0);
+        Object[] headPair = null;
+        for (int i = 1; i < this.edges.size(); i++) {
+            headPair = this.edges.elementAt(i);
+            Vector<?> tails = (Vector<?>) tailPair[0];
+            Vector<?> heads = (Vector<?>) headPair[0];
+            boolean tailsAreList = ((Boolean) tailPair[1]).booleanValue();
+            boolean headsAreList = ((Boolean) headPair[1]).booleanValue();
+            for (int j = 0; j < tails.size(); j++) {
+                String tail = endName(tails.elementAt(j), tailsAreList);
+                String tailPort = endPort(tails.elementAt(j), tailsAreList);
+                for (int k = 0; k < heads.size(); k++) {
+                    this.listener.edge(subgName, tail, tailPort, endName(heads.elementAt(k), headsAreList),
+                        endPort(heads.elementAt(k), headsAreList), edgeAttrs);
+                }
+            }
+            tailPair = headPair;
+        }
+        this.edges.removeAllElements();
+        this.attrs.removeAllElements();
+    }
+
+    // an edge end is either a {name,port} pair from a node list or a node name from a subgraph
+    private static String endName(Object end, boolean isList)
+    {
+        return isList ? (String) ((Object[]) end)[0] : (String) end;
+    }
+
+    private static String endPort(Object end, boolean isList)
+    {
+        return isList ? (String) ((Object[]) end)[1] : null;
+    }
+
+    Attribute[] attrArray()
+    {
+        if (this.attrs.size() == 0) {
+            return NO_ATTRS;
+        }
+        return this.attrs.toArray(new Attribute[this.attrs.size()]);
+    }
+
     void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
     {
         Attribute attr = null;
+        boolean lazy = this.parser.isLazyConversion();
         for (int i = 0; i < this.attrs.size(); i++) {
             attr = this.attrs.elementAt(i);
             if (attr == skip1) {
@@ -888,7 +1359,12 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
             } else if (attr == skip2) {
                 continue;
             }
-            elem.setAttribute(attr);
+            if (lazy) {
+                // pass the value on as it is, so that a value not converted from its string form yet stays that way
+                elem.setAttribute(attr.getName(), attr.getAvailableValue());
+            } else {
+                elem.setAttribute(attr);
+            }
         }
     }
 
@@ -920,7 +1396,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 Object RESULT = null;
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(17/* optSeparator */,
+                    CUP$Parser$parser.new_symbol(17/* optSeparator */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -932,7 +1408,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 Object RESULT = null;
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(17/* optSeparator */,
+                    CUP$Parser$parser.new_symbol(17/* optSeparator */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -944,7 +1420,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 Object RESULT = null;
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(17/* optSeparator */,
+                    CUP$Parser$parser.new_symbol(17/* optSeparator */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -956,7 +1432,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 Object RESULT = null;
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(16/* optSemi */,
+                    CUP$Parser$parser.new_symbol(16/* optSemi */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -968,7 +1444,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 Object RESULT = null;
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(16/* optSemi */,
+                    CUP$Parser$parser.new_symbol(16/* optSemi */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -982,7 +1458,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 RESULT = anonStr();
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(5/* optSubgHdr */,
+                    CUP$Parser$parser.new_symbol(5/* optSubgHdr */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -996,7 +1472,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 RESULT = anonStr();
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(5/* optSubgHdr */,
+                    CUP$Parser$parser.new_symbol(5/* optSubgHdr */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1011,7 +1487,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 RESULT = val;
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(5/* optSubgHdr */,
+                    CUP$Parser$parser.new_symbol(5/* optSubgHdr */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 1).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1028,7 +1504,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 closeSubg();
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(22/* subgraph */,
+                    CUP$Parser$parser.new_symbol(22/* subgraph */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 2).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1043,7 +1519,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 openSubg(val);
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(34/* NT$2 */,
+                    CUP$Parser$parser.new_symbol(34/* NT$2 */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1055,7 +1531,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 Object RESULT = null;
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(25/* graphAttrDefs */,
+                    CUP$Parser$parser.new_symbol(25/* graphAttrDefs */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1070,7 +1546,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 appendAttr(name, null);
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(30/* attrMacro */,
+                    CUP$Parser$parser.new_symbol(30/* attrMacro */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 1).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1087,7 +1563,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 appendAttr(name, value);
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(29/* attrAssignment */,
+                    CUP$Parser$parser.new_symbol(29/* attrAssignment */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 2).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1099,7 +1575,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 Object RESULT = null;
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(28/* attrItem */,
+                    CUP$Parser$parser.new_symbol(28/* attrItem */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1111,7 +1587,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 Object RESULT = null;
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(28/* attrItem */,
+                    CUP$Parser$parser.new_symbol(28/* attrItem */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1123,7 +1599,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 Object RESULT = null;
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(27/* attrDefs */,
+                    CUP$Parser$parser.new_symbol(27/* attrDefs */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 2).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1135,7 +1611,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 Object RESULT = null;
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(27/* attrDefs */,
+                    CUP$Parser$parser.new_symbol(27/* attrDefs */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1147,7 +1623,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 Object RESULT = null;
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(26/* optAttrDefs */,
+                    CUP$Parser$parser.new_symbol(26/* optAttrDefs */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1159,7 +1635,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 Object RESULT = null;
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(26/* optAttrDefs */,
+                    CUP$Parser$parser.new_symbol(26/* optAttrDefs */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1171,7 +1647,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 Object RESULT = null;
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(24/* attrList */,
+                    CUP$Parser$parser.new_symbol(24/* attrList */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 3).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1183,7 +1659,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 Object RESULT = null;
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(20/* optAttr */,
+                    CUP$Parser$parser.new_symbol(20/* optAttr */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1195,7 +1671,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 Object RESULT = null;
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(20/* optAttr */,
+                    CUP$Parser$parser.new_symbol(20/* optAttr */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1209,7 +1685,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 RESULT = null;
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(7/* optMacroName */,
+                    CUP$Parser$parser.new_symbol(7/* optMacroName */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1224,7 +1700,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 RESULT = val;
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(7/* optMacroName */,
+                    CUP$Parser$parser.new_symbol(7/* optMacroName */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 1).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1238,7 +1714,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 RESULT = new Integer(GrappaConstants.EDGE);
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(4/* attrType */,
+                    CUP$Parser$parser.new_symbol(4/* attrType */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1252,7 +1728,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 RESULT = new Integer(GrappaConstants.NODE);
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(4/* attrType */,
+                    CUP$Parser$parser.new_symbol(4/* attrType */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1266,7 +1742,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 RESULT = new Integer(GrappaConstants.SUBGRAPH);
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(4/* attrType */,
+                    CUP$Parser$parser.new_symbol(4/* attrType */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1280,7 +1756,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 attrStmt(GrappaConstants.SUBGRAPH, null);
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(15/* attrStmt */,
+                    CUP$Parser$parser.new_symbol(15/* attrStmt */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1296,7 +1772,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 attrStmt(type.intValue(), name);
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(15/* attrStmt */,
+                    CUP$Parser$parser.new_symbol(15/* attrStmt */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 2).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1310,7 +1786,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 RESULT = null;
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(8/* optPort */,
+                    CUP$Parser$parser.new_symbol(8/* optPort */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1325,7 +1801,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 RESULT = val;
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(8/* optPort */,
+                    CUP$Parser$parser.new_symbol(8/* optPort */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 1).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1341,7 +1817,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 appendNode(name, port);
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(23/* node */,
+                    CUP$Parser$parser.new_symbol(23/* node */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 1).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1353,7 +1829,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 Object RESULT = null;
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(21/* nodeList */,
+                    CUP$Parser$parser.new_symbol(21/* nodeList */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 2).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1365,7 +1841,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 Object RESULT = null;
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(21/* nodeList */,
+                    CUP$Parser$parser.new_symbol(21/* nodeList */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1380,7 +1856,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 RESULT = new Boolean(false);
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(3/* rCompound */,
+                    CUP$Parser$parser.new_symbol(3/* rCompound */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1399,7 +1875,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 RESULT = new Boolean(true);
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(3/* rCompound */,
+                    CUP$Parser$parser.new_symbol(3/* rCompound */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 3).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1414,7 +1890,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 bufferEdges();
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(33/* NT$1 */,
+                    CUP$Parser$parser.new_symbol(33/* NT$1 */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1431,7 +1907,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 }
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(31/* edge_op */,
+                    CUP$Parser$parser.new_symbol(31/* edge_op */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1448,7 +1924,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 }
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(31/* edge_op */,
+                    CUP$Parser$parser.new_symbol(31/* edge_op */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1460,7 +1936,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 Object RESULT = null;
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(19/* simple */,
+                    CUP$Parser$parser.new_symbol(19/* simple */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1472,7 +1948,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 Object RESULT = null;
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(19/* simple */,
+                    CUP$Parser$parser.new_symbol(19/* simple */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1492,7 +1968,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 }
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(18/* compound */,
+                    CUP$Parser$parser.new_symbol(18/* compound */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 2).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1504,7 +1980,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 Object RESULT = null;
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(14/* stmt */,
+                    CUP$Parser$parser.new_symbol(14/* stmt */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 1).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1516,7 +1992,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 Object RESULT = null;
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(14/* stmt */,
+                    CUP$Parser$parser.new_symbol(14/* stmt */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 1).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1528,7 +2004,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 Object RESULT = null;
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(13/* stmtList */,
+                    CUP$Parser$parser.new_symbol(13/* stmtList */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1540,7 +2016,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 Object RESULT = null;
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(13/* stmtList */,
+                    CUP$Parser$parser.new_symbol(13/* stmtList */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 1).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1552,7 +2028,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 Object RESULT = null;
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(12/* optStmtList */,
+                    CUP$Parser$parser.new_symbol(12/* optStmtList */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1564,7 +2040,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 Object RESULT = null;
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(12/* optStmtList */,
+                    CUP$Parser$parser.new_symbol(12/* optStmtList */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1576,7 +2052,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 Object RESULT = null;
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(11/* body */,
+                    CUP$Parser$parser.new_symbol(11/* body */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 2).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1590,7 +2066,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 RESULT = anonStr();
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(6/* optGraphName */,
+                    CUP$Parser$parser.new_symbol(6/* optGraphName */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1605,7 +2081,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 RESULT = val;
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(6/* optGraphName */,
+                    CUP$Parser$parser.new_symbol(6/* optGraphName */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1619,7 +2095,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 RESULT = new Boolean(true);
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(2/* graphType */,
+                    CUP$Parser$parser.new_symbol(2/* graphType */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1633,7 +2109,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 RESULT = new Boolean(false);
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(2/* graphType */,
+                    CUP$Parser$parser.new_symbol(2/* graphType */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1647,7 +2123,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 RESULT = new Boolean(false);
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(1/* optStrict */,
+                    CUP$Parser$parser.new_symbol(1/* optStrict */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1661,7 +2137,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 RESULT = new Boolean(true);
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(1/* optStrict */,
+                    CUP$Parser$parser.new_symbol(1/* optStrict */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1676,7 +2152,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 startGraph(name, true, true);
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(10/* hdr */,
+                    CUP$Parser$parser.new_symbol(10/* hdr */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 1).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1691,7 +2167,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 startGraph(name, true, false);
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(10/* hdr */,
+                    CUP$Parser$parser.new_symbol(10/* hdr */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 1).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1708,7 +2184,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 startGraph(name, type.booleanValue(), strict.booleanValue());
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(10/* hdr */,
+                    CUP$Parser$parser.new_symbol(10/* hdr */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 2).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1724,7 +2200,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 (this.parser).report_warning("The graph to parse is empty.", null);
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(9/* graph */,
+                    CUP$Parser$parser.new_symbol(9/* graph */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1742,7 +2218,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 .report_error("An error was encountered while graph parsing (" + val.toString() + ").", null);
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(9/* graph */,
+                    CUP$Parser$parser.new_symbol(9/* graph */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1760,7 +2236,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 closeGraph();
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(9/* graph */,
+                    CUP$Parser$parser.new_symbol(9/* graph */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 2).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1774,7 +2250,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 openGraph();
 
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(32/* NT$0 */,
+                    CUP$Parser$parser.new_symbol(32/* NT$0 */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
@@ -1787,7 +2263,7 @@ void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
                 Object start_val = CUP$Parser$stack.elementAt(CUP$Parser$top - 1).value;
                 RESULT = start_val;
                 CUP$Parser$result =
-                    new java_cup.runtime.Symbol(0/* $START */,
+                    CUP$Parser$parser.new_symbol(0/* $START */,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 1).left,
                         CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
             }
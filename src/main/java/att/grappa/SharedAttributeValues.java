@@ -0,0 +1,83 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The shared (flyweight) instances of attribute values that many elements tend to have in common, such as
+ * <code>filled</code>, <code>red</code> or <code>0.75</code>. Only the values of the attributes chosen here, and only
+ * immutable values (strings and numbers), are shared, so that values unique to an element (positions, labels) and
+ * values callers may change in place (tag lists, styles, points) never are. The pool is shared by all graphs, is
+ * thread-safe, and stops growing once it holds <code>LIMIT</code> values, after which new values are simply not
+ * shared.
+ *
+ * @version $Id$
+ */
+final class SharedAttributeValues implements GrappaConstants
+{
+    /**
+     * Largest number of values shared.
+     */
+    static final int LIMIT = 8192;
+
+    private static final ConcurrentHashMap<Object, Object> values = new ConcurrentHashMap<>();
+
+    // whether the values of the standard attribute with a given key are shared
+    private static final boolean[] sharedKeys = new boolean[STANDARD_KEY_COUNT];
+
+    static {
+        int[] keys = { WIDTH_KEY, HEIGHT_KEY, SHAPE_KEY, PERIPHERIES_KEY, SIDES_KEY, DISTORTION_KEY, SKEW_KEY,
+            ORIENTATION_KEY, ROTATION_KEY, STYLE_KEY, FONTNAME_KEY, FONTSTYLE_KEY, FONTSIZE_KEY, COLOR_KEY,
+            FILLCOLOR_KEY, FONTCOLOR_KEY, DIR_KEY, CLUSTERRANK_KEY, MINLEN_KEY, RANKDIR_KEY, WEIGHT_KEY };
+        for (int key : keys) {
+            sharedKeys[key] = true;
+        }
+    }
+
+    private SharedAttributeValues()
+    {
+    }
+
+    /**
+     * Check if the values of the attribute with the given key are shared.
+     *
+     * @param key the numeric key of the attribute name
+     * @return true if its values are shared
+     * @see AttributeKey
+     */
+    static boolean isShared(int key)
+    {
+        return key >= 0 && key < sharedKeys.length && sharedKeys[key];
+    }
+
+    /**
+     * Get the shared instance of a value. Values other than strings and numbers are returned as they are.
+     *
+     * @param value the value
+     * @return the shared value equal to the supplied one, or the value itself
+     */
+    static Object share(Object value)
+    {
+        if (!(value instanceof String || value instanceof Integer || value instanceof Double)) {
+            return value;
+        }
+        Object known = values.get(value);
+        if (known != null) {
+            return known;
+        }
+        if (values.size() >= LIMIT) {
+            return value;
+        }
+        known = values.putIfAbsent(value, value);
+        return (known == null) ? value : known;
+    }
+}
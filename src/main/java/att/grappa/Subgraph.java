@@ -304,11 +304,12 @@ public Enumeration<Attribute> getNodeAttributePairs()
      */
     public Object setNodeAttribute(Attribute attr)
     {
+        noteDefaultChange();
         if (attr == null) {
             return null;
         }
         if (this.nodeAttributes == null) {
-            this.nodeAttributes = new Hashtable<>();
+            this.nodeAttributes = new AttributeMap();
         }
         // check to see if attr is being passed down the subgraph chain
         Subgraph sg = getSubgraph();
@@ -326,7 +327,7 @@ public Object setNodeAttribute(Attribute attr)
             return attr.getValue();
         }
         if (crntAttr == null) {
-            if (attr.getValue() == null) {
+            if (attr.getAvailableValue() == null) {
                 return null;
             }
             this.nodeAttributes.put(attr.getName(), crntAttr = attr);
@@ -334,17 +335,15 @@ public Object setNodeAttribute(Attribute attr)
             // it's a pass down, so no need to set observers
         } else {
             oldValue = crntAttr.getValue();
-            crntAttr.setChanged(); // so notifyObservers is sure to be called
+            crntAttr.setChanged(); // so the listeners are sure to be told
             // it's a pass down, so pass it down
             this.nodeAttributes.put(attr.getName(), attr);
             // System.err.println("Adding passthru2 node attr("+attr.getName()+","+attr.getValue()+") to "+getName());
-            // this is why we need notifyObservers called
+            // this is why we need the listeners told
             newAttr = attr;
         }
         // this should only be possible when "else" above has occurred
-        if (crntAttr.hasChanged()) {
-            crntAttr.notifyObservers(new Object[] { newAttr, new Long(System.currentTimeMillis()) });
-        }
+        notifyChange(crntAttr, newAttr);
         return oldValue;
     }
 
@@ -358,8 +357,9 @@ public Object setNodeAttribute(Attribute attr)
      */
     public Object setNodeAttribute(String name, Object value)
     {
+        noteDefaultChange();
         if (this.nodeAttributes == null) {
-            this.nodeAttributes = new Hashtable<>();
+            this.nodeAttributes = new AttributeMap();
         }
         if (name == null) {
             throw new IllegalArgumentException("cannot set an attribute using a null name");
@@ -404,9 +404,7 @@ public Object setNodeAttribute(String name, Object value)
                 // System.err.println("changing node attr("+name+","+value+") in "+getName());
             }
         }
-        if (crntAttr.hasChanged()) {
-            crntAttr.notifyObservers(new Long(System.currentTimeMillis()));
-        }
+        notifyChange(crntAttr, null);
         return oldValue;
     }
 
@@ -425,10 +423,9 @@ private void removeNodeAttribute(String name)
             return;
         }
         attr.setValue("");
-        if (attr.hasChanged()) {
-            attr.notifyObservers(new Long(System.currentTimeMillis()));
-        }
-        attr.deleteObservers();
+        // tell the listeners now, since they are dropped right after
+        attr.notifyListeners(null, System.currentTimeMillis());
+        attr.removeListeners();
     }
 
     /**
@@ -441,11 +438,12 @@ private void removeNodeAttribute(String name)
      */
     public Object setEdgeAttribute(Attribute attr)
     {
+        noteDefaultChange();
         if (attr == null) {
             return null;
         }
         if (this.edgeAttributes == null) {
-            this.edgeAttributes = new Hashtable<>();
+            this.edgeAttributes = new AttributeMap();
         }
         // check to see if attr is being passed down the subgraph chain
         Subgraph sg = getSubgraph();
@@ -463,7 +461,7 @@ public Object setEdgeAttribute(Attribute attr)
             return attr.getValue();
         }
         if (crntAttr == null) {
-            if (attr.getValue() == null) {
+            if (attr.getAvailableValue() == null) {
                 return null;
             }
             this.edgeAttributes.put(attr.getName(), crntAttr = attr);
@@ -471,16 +469,14 @@ public Object setEdgeAttribute(Attribute attr)
             // it's a pass down, so no need to set observers
         } else {
             oldValue = crntAttr.getValue();
-            crntAttr.setChanged(); // so notifyObservers is sure to be called
+            crntAttr.setChanged(); // so the listeners are sure to be told
             // it's a pass down, so pass it down
             this.edgeAttributes.put(attr.getName(), attr);
             // System.err.println("Adding passthru2 edge attr("+attr.getName()+","+attr.getValue()+") to "+getName());
             newAttr = attr;
         }
         // this should only be possible when "else" above has occurred
-        if (crntAttr.hasChanged()) {
-            crntAttr.notifyObservers(new Object[] { newAttr, new Long(System.currentTimeMillis()) });
-        }
+        notifyChange(crntAttr, newAttr);
         return oldValue;
     }
 
@@ -494,8 +490,9 @@ public Object setEdgeAttribute(Attribute attr)
      */
     public Object setEdgeAttribute(String name, Object value)
     {
+        noteDefaultChange();
         if (this.edgeAttributes == null) {
-            this.edgeAttributes = new Hashtable<>();
+            this.edgeAttributes = new AttributeMap();
         }
         if (name == null) {
             throw new IllegalArgumentException("cannot set an attribute using a null name");
@@ -535,9 +532,7 @@ public Object setEdgeAttribute(String name, Object value)
                 // System.err.println("changing edge attr("+name+","+value+") in "+getName());
             }
         }
-        if (crntAttr.hasChanged()) {
-            crntAttr.notifyObservers(new Long(System.currentTimeMillis()));
-        }
+        notifyChange(crntAttr, null);
         return oldValue;
     }
 
@@ -555,10 +550,9 @@ private void removeEdgeAttribute(String name)
             return;
         }
         attr.setValue("");
-        if (attr.hasChanged()) {
-            attr.notifyObservers(new Long(System.currentTimeMillis()));
-        }
-        attr.deleteObservers();
+        // tell the listeners now, since they are dropped right after
+        attr.notifyListeners(null, System.currentTimeMillis());
+        attr.removeListeners();
     }
 
     /**
@@ -572,11 +566,12 @@ private void removeEdgeAttribute(String name)
     @Override
     public Object setAttribute(Attribute attr)
     {
+        noteAttributeChange();
         if (attr == null) {
             return null;
         }
         if (this.attributes == null) {
-            this.attributes = new Hashtable<>();
+            this.attributes = new AttributeMap();
         }
         // check to see if attr is being passed down the subgraph chain
         Subgraph sg = getSubgraph();
@@ -594,7 +589,7 @@ public Object setAttribute(Attribute attr)
             return attr.getValue();
         }
         if (crntAttr == null) {
-            if (attr.getValue() == null) {
+            if (attr.getAvailableValue() == null) {
                 return null;
             }
             this.attributes.put(attr.getName(), crntAttr = attr);
@@ -602,17 +597,15 @@ public Object setAttribute(Attribute attr)
             // it's a pass down, so no need to set observers
         } else {
             oldValue = crntAttr.getValue();
-            crntAttr.setChanged(); // so notifyObservers is sure to be called
+            crntAttr.setChanged(); // so the listeners are sure to be told
             // it's a pass down, so pass it down
             this.attributes.put(attr.getName(), attr);
             // System.err.println("Adding passthru2 graph attr("+attr.getName()+","+attr.getValue()+") to "+getName());
-            // this is why we need notifyObservers called
+            // this is why we need the listeners told
             newAttr = attr;
         }
         // this should only be possible when "else" above has occurred
-        if (crntAttr.hasChanged()) {
-            crntAttr.notifyObservers(new Object[] { newAttr, new Long(System.currentTimeMillis()) });
-        }
+        notifyChange(crntAttr, newAttr);
         return oldValue;
     }
 
@@ -627,8 +620,9 @@ public Object setAttribute(Attribute attr)
     @Override
     public Object setAttribute(String name, Object value)
     {
+        noteAttributeChange();
         if (this.attributes == null) {
-            this.attributes = new Hashtable<>();
+            this.attributes = new AttributeMap();
         }
         if (name == null) {
             throw new IllegalArgumentException("cannot set an attribute using a null name");
@@ -653,7 +647,7 @@ public Object setAttribute(String name, Object value)
             }
             this.attributes.put(name, (crntAttr = new Attribute(SUBGRAPH, name, value)));
             if (this.grappaNexus != null && isOfInterest(name)) {
-                crntAttr.addObserver(this.grappaNexus);
+                crntAttr.addListener(this.grappaNexus);
             }
 
             // System.err.println("adding new graph attr("+name+","+value+") to "+getName());
@@ -683,9 +677,7 @@ public Object setAttribute(String name, Object value)
                 // System.err.println("changing graph attr("+name+","+value+") in "+getName());
             }
         }
-        if (crntAttr.hasChanged()) {
-            crntAttr.notifyObservers(new Long(System.currentTimeMillis()));
-        }
+        notifyChange(crntAttr, null);
         return oldValue;
     }
 
@@ -1012,7 +1004,7 @@ public static int attributeType(String attrname)
     }
 
     // get the parent default attribute value for the specified type and key
-    private Attribute getParentDefault(int type, String key)
+    Attribute getParentDefault(int type, String key)
     {
         Attribute attr = null;
         Subgraph subg = getSubgraph();
@@ -1236,6 +1228,7 @@ public void addNode(Node newNode)
             this.nodedict = new HashMap<>();
         }
         this.nodedict.put(newNode.getName(), newNode);
+        noteStructureChange();
     }
 
     /**
@@ -1249,6 +1242,7 @@ public Node removeNode(String nodeName)
         if (this.nodedict == null) {
             return (null);
         }
+        noteStructureChange();
         return this.nodedict.remove(nodeName);
     }
 
@@ -1266,6 +1260,7 @@ public void addEdge(Edge newEdge)
             this.edgedict = new HashMap<>();
         }
         this.edgedict.put(newEdge.getName(), newEdge);
+        noteStructureChange();
     }
 
     /**
@@ -1279,6 +1274,7 @@ public Edge removeEdge(String edgeName)
         if (this.edgedict == null) {
             return (null);
         }
+        noteStructureChange();
         return this.edgedict.remove(edgeName);
     }
 
@@ -1296,6 +1292,7 @@ public void addSubgraph(Subgraph newGraph)
             this.graphdict = new HashMap<>();
         }
         this.graphdict.put(newGraph.getName(), newGraph);
+        noteStructureChange();
     }
 
     /**
@@ -1309,6 +1306,7 @@ public Subgraph removeSubgraph(String graphName)
         if (this.graphdict == null) {
             return (null);
         }
+        noteStructureChange();
         return this.graphdict.remove(graphName);
     }
 
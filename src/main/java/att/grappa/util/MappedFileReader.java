@@ -0,0 +1,167 @@
+package att.grappa.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * A Reader that decodes the contents of a file channel through memory-mapped windows, avoiding the intermediate copies
+ * made by an <code>InputStreamReader</code> over a <code>FileInputStream</code>. Characters are decoded directly into
+ * the array passed to <code>read</code>. Malformed input is replaced, as with <code>InputStreamReader</code>.
+ *
+ * @version $Id$
+ */
+public class MappedFileReader extends Reader
+{
+    /**
+     * Default size of each mapped window of the file.
+     */
+    public static final long DEFAULT_WINDOW_SIZE = 64L * 1024 * 1024;
+
+    private final FileChannel channel;
+
+    private final CharsetDecoder decoder;
+
+    private final long windowSize;
+
+    private final long size;
+
+    /**
+     * File offset of the start of the current window.
+     */
+    private long windowStart;
+
+    private MappedByteBuffer window = null;
+
+    private boolean flushed = false;
+
+    /**
+     * Second half of a surrogate pair that did not fit in the caller's array, or -1.
+     */
+    private int pending = -1;
+
+    private boolean closed = false;
+
+    /**
+     * Create a reader over the remaining contents of <code>channel</code>, starting at its current position.
+     *
+     * @param channel the channel to read from
+     * @param charset the charset used to decode the file
+     * @exception IOException if the channel size or position cannot be obtained
+     */
+    public MappedFileReader(FileChannel channel, Charset charset) throws IOException
+    {
+        this(channel, charset, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Create a reader over the remaining contents of <code>channel</code>, starting at its current position, mapping
+     * at most <code>windowSize</code> bytes at a time.
+     *
+     * @param channel the channel to read from
+     * @param charset the charset used to decode the file
+     * @param windowSize the maximum number of bytes mapped at once
+     * @exception IOException if the channel size or position cannot be obtained
+     * @exception IllegalArgumentException if an argument is null or the window size is not positive
+     */
+    public MappedFileReader(FileChannel channel, Charset charset, long windowSize) throws IOException
+    {
+        if (channel == null || charset == null) {
+            throw new IllegalArgumentException("channel and charset cannot be null");
+        }
+        if (windowSize <= 0 || windowSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("invalid window size (" + windowSize + ")");
+        }
+        this.channel = channel;
+        this.decoder = charset.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.windowSize = windowSize;
+        this.size = channel.size();
+        this.windowStart = channel.position();
+    }
+
+    private void map(long start, long length) throws IOException
+    {
+        this.windowStart = start;
+        this.window = this.channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(length, this.size - start));
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException
+    {
+        if (this.closed) {
+            throw new IOException("Reader closed");
+        }
+        if (off < 0 || len < 0 || off + len > cbuf.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len == 0) {
+            return 0;
+        }
+        if (this.pending >= 0) {
+            cbuf[off] = (char) this.pending;
+            this.pending = -1;
+            return 1;
+        }
+        if (this.flushed) {
+            return -1;
+        }
+        if (this.window == null) {
+            map(this.windowStart, this.windowSize);
+        }
+        if (len == 1) {
+            // a surrogate pair needs room for two characters
+            char[] pair = new char[2];
+            int count = read(pair, 0, 2);
+            if (count == 2) {
+                this.pending = pair[1];
+            }
+            if (count > 0) {
+                cbuf[off] = pair[0];
+                return 1;
+            }
+            return count;
+        }
+        CharBuffer out = CharBuffer.wrap(cbuf, off, len);
+        while (out.position() == off) {
+            boolean endOfInput = (this.windowStart + this.window.limit() >= this.size);
+            CoderResult result = this.decoder.decode(this.window, out, endOfInput);
+            if (result.isError()) {
+                result.throwException();
+            }
+            if (result.isUnderflow()) {
+                if (endOfInput) {
+                    if (!this.flushed) {
+                        this.decoder.flush(out);
+                        this.flushed = true;
+                    }
+                    break;
+                }
+                // any partial character left in this window is decoded again from the next one, which is
+                // widened when the window is too small to hold a single character
+                int consumed = this.window.position();
+                map(this.windowStart + consumed, (consumed == 0) ? this.window.limit() + 8 : this.windowSize);
+            }
+        }
+        int count = out.position() - off;
+        return (count == 0) ? -1 : count;
+    }
+
+    /**
+     * Close this reader and the underlying channel.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        this.closed = true;
+        this.window = null;
+        this.channel.close();
+    }
+}
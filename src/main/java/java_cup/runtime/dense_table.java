@@ -0,0 +1,127 @@
+package java_cup.runtime;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * This class holds a parse table (the action table or the reduce-goto table) expanded into a single flat array indexed
+ * by state and Symbol index, so that a lookup is a direct index rather than a search of the packed row for the state.
+ * The packed tables produced by the parser generator list index, value pairs per row, terminated by a default entry
+ * (denoted with a Symbol index of -1); entries not listed in a row take the row default.
+ * <p>
+ * Expanded tables are cached by the identity of the packed table they were built from. Since generated parsers keep
+ * their packed tables in static fields, each table is expanded only once per JVM and shared by all parser instances.
+ * </p>
+ *
+ * @see java_cup.runtime.lr_parser#get_action
+ * @see java_cup.runtime.lr_parser#get_reduce
+ * @version $Id$
+ */
+public final class dense_table
+{
+    /*-----------------------------------------------------------*/
+    /*--- Constructor(s) ----------------------------------------*/
+    /*-----------------------------------------------------------*/
+
+    /**
+     * Expand a packed table.
+     *
+     * @param packed the packed table, one row per state (rows may be null)
+     * @param no_entry the value used for rows without a default entry
+     */
+    private dense_table(short[][] packed, short no_entry)
+    {
+        int max_sym = -1;
+        for (short[] row : packed) {
+            if (row == null) {
+                continue;
+            }
+            for (int probe = 0; probe + 1 < row.length; probe += 2) {
+                max_sym = Math.max(max_sym, row[probe]);
+            }
+        }
+
+        this.num_syms = max_sym + 1;
+        this.defaults = new short[packed.length];
+        this.entries = new short[packed.length * this.num_syms];
+
+        for (int state = 0; state < packed.length; state++) {
+            short[] row = packed[state];
+            short dflt = no_entry;
+            int end = 0;
+            if (row != null) {
+                /* find the default, which terminates the row */
+                for (end = 0; end + 1 < row.length; end += 2) {
+                    if (row[end] == -1) {
+                        dflt = row[end + 1];
+                        break;
+                    }
+                }
+            }
+            this.defaults[state] = dflt;
+
+            int base = state * this.num_syms;
+            for (int sym = 0; sym < this.num_syms; sym++) {
+                this.entries[base + sym] = dflt;
+            }
+            /* fill backwards so that the first entry for a Symbol wins, as with a search of the row */
+            for (int probe = end - 2; probe >= 0; probe -= 2) {
+                this.entries[base + row[probe]] = row[probe + 1];
+            }
+        }
+    }
+
+    /*-----------------------------------------------------------*/
+    /*--- (Access to) Instance Variables ------------------------*/
+    /*-----------------------------------------------------------*/
+
+    /** Cache of expanded tables keyed by the packed table they came from. */
+    private static final Map<short[][], dense_table> cache = new WeakHashMap<>();
+
+    /** Number of Symbol indices per state. */
+    private final int num_syms;
+
+    /** The default entry of each state. */
+    private final short[] defaults;
+
+    /** The expanded entries, indexed by state * num_syms + Symbol index. */
+    private final short[] entries;
+
+    /*-----------------------------------------------------------*/
+    /*--- General Methods ---------------------------------------*/
+    /*-----------------------------------------------------------*/
+
+    /**
+     * Get the expanded form of a packed table, expanding it on first use.
+     *
+     * @param packed the packed table
+     * @param no_entry the value returned for rows without a default entry
+     */
+    public static dense_table get(short[][] packed, short no_entry)
+    {
+        synchronized (cache) {
+            dense_table table = cache.get(packed);
+            if (table == null) {
+                table = new dense_table(packed, no_entry);
+                cache.put(packed, table);
+            }
+            return table;
+        }
+    }
+
+    /* . . . . . . . . . . . . . . . . . . . . . . . . . . . . . . */
+
+    /**
+     * Look up an entry.
+     *
+     * @param state the state index of the entry being accessed.
+     * @param sym the Symbol index of the entry being accessed.
+     */
+    public short lookup(int state, int sym)
+    {
+        if (sym >= 0 && sym < this.num_syms) {
+            return this.entries[state * this.num_syms + sym];
+        }
+        return this.defaults[state];
+    }
+}
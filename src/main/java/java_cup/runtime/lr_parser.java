@@ -222,7 +222,7 @@ public void done_parsing()
     /* . . . . . . . . . . . . . . . . . . . . . . . . . . . . . . */
 
     /** The parse stack itself. */
-    protected Stack<Symbol> stack = new Stack<>();
+    protected symbol_stack stack = new symbol_stack();
 
     /* . . . . . . . . . . . . . . . . . . . . . . . . . . . . . . */
 
@@ -241,6 +241,16 @@ public void done_parsing()
 
     /* . . . . . . . . . . . . . . . . . . . . . . . . . . . . . . */
 
+    /** Expanded form of the action table, set up on first use. */
+    private dense_table action_dense;
+
+    /* . . . . . . . . . . . . . . . . . . . . . . . . . . . . . . */
+
+    /** Expanded form of the reduce-goto table, set up on first use. */
+    private dense_table reduce_dense;
+
+    /* . . . . . . . . . . . . . . . . . . . . . . . . . . . . . . */
+
     /**
      * This is the scanner object used by the default implementation of scan() to get Symbols. To avoid name conflicts
      * with existing code, this field is private. [CSA/davidm]
@@ -267,6 +277,35 @@ public Scanner getScanner()
     /*--- General Methods ---------------------------------------*/
     /*-----------------------------------------------------------*/
 
+    /**
+     * Get a Symbol for a token or the result of a reduction. Symbols popped off the parse stack during reductions are
+     * reused when recycling is enabled (the default), so scanners and action code should prefer this to allocating
+     * Symbols directly. A Symbol obtained here must be handed to the parser and not kept after it is popped.
+     *
+     * @param id the symbol number
+     * @param left the left position
+     * @param right the right position
+     * @param value the value of the Symbol
+     */
+    public Symbol new_symbol(int id, int left, int right, Object value)
+    {
+        return this.stack.obtain(id, left, right, value);
+    }
+
+    /* . . . . . . . . . . . . . . . . . . . . . . . . . . . . . . */
+
+    /**
+     * Indicate whether Symbols popped off the parse stack during reductions should be reused by new_symbol().
+     *
+     * @param recycle true to reuse Symbols
+     */
+    public void set_symbol_recycling(boolean recycle)
+    {
+        this.stack.set_recycling(recycle);
+    }
+
+    /* . . . . . . . . . . . . . . . . . . . . . . . . . . . . . . */
+
     /**
      * Perform a bit of user supplied action code (supplied by generated subclass). Actions are indexed by an internal
      * action number assigned at parser generation time.
@@ -305,7 +344,8 @@ public void user_init() throws java.lang.Exception
      * Get the next Symbol from the input (supplied by generated subclass). Once end of file has been reached, all
      * subsequent calls to scan should return an EOF Symbol (which is Symbol number 0). By default this method returns
      * getScanner().next_token(); this implementation can be overriden by the generated parser using the code declared
-     * in the "scan with" clause. Do not recycle objects; every call to scan() should return a fresh object.
+     * in the "scan with" clause. Do not recycle objects; every call to scan() should return a fresh object (Symbols
+     * obtained from new_symbol() are fresh in this sense).
      */
     public Symbol scan() throws java.lang.Exception
     {
@@ -395,55 +435,20 @@ public void unrecovered_syntax_error(Symbol cur_token)
     /**
      * Fetch an action from the action table. The table is broken up into rows, one per state (rows are indexed directly
      * by state number). Within each row, a list of index, value pairs are given (as sequential entries in the table),
-     * and the list is terminated by a default entry (denoted with a Symbol index of -1). To find the proper entry in a
-     * row we do a linear or binary search (depending on the size of the row).
+     * and the list is terminated by a default entry (denoted with a Symbol index of -1). Rather than searching the row,
+     * the table is expanded once into a dense_table shared by all parsers using it, and the entry is indexed directly.
      *
      * @param state the state index of the action being accessed.
      * @param sym the Symbol index of the action being accessed.
      */
     protected final short get_action(int state, int sym)
     {
-        short tag;
-        int first, last, probe;
-        short[] row = this.action_tab[state];
-
-        /* linear search if we are < 10 entries */
-        if (row.length < 20) {
-            for (probe = 0; probe < row.length; probe++)
-            {
-                /* is this entry labeled with our Symbol or the default? */
-                tag = row[probe++];
-                if (tag == sym || tag == -1)
-                {
-                    /* return the next entry */
-                    return row[probe];
-                }
-            }
-            /* otherwise binary search */
-        } else
-        {
-            first = 0;
-            last = (row.length - 1) / 2 - 1; /* leave out trailing default entry */
-            while (first <= last)
-            {
-                probe = (first + last) / 2;
-                if (sym == row[probe * 2]) {
-                    return row[probe * 2 + 1];
-                } else if (sym > row[probe * 2]) {
-                    first = probe + 1;
-                } else {
-                    last = probe - 1;
-                }
-            }
-
-            /* not found, use the default at the end */
-            return row[row.length - 1];
+        dense_table table = this.action_dense;
+        if (table == null) {
+            /* rows without a default entry give an error (0) */
+            table = this.action_dense = dense_table.get(this.action_tab, (short) 0);
         }
-
-        /*
-         * shouldn't happened, but if we run off the end we return the default (error == 0)
-         */
-        return 0;
+        return table.lookup(state, sym);
     }
 
     /* . . . . . . . . . . . . . . . . . . . . . . . . . . . . . . */
@@ -451,34 +456,20 @@ protected final short get_action(int state, int sym)
     /**
      * Fetch a state from the reduce-goto table. The table is broken up into rows, one per state (rows are indexed
      * directly by state number). Within each row, a list of index, value pairs are given (as sequential entries in the
-     * table), and the list is terminated by a default entry (denoted with a Symbol index of -1). To find the proper
-     * entry in a row we do a linear search.
+     * table), and the list is terminated by a default entry (denoted with a Symbol index of -1). As with the action
+     * table, the entry is indexed directly in the shared dense_table form of the table.
      *
      * @param state the state index of the entry being accessed.
      * @param sym the Symbol index of the entry being accessed.
      */
     protected final short get_reduce(int state, int sym)
     {
-        short tag;
-        short[] row = this.reduce_tab[state];
-
-        /* if we have a null row we go with the default */
-        if (row == null) {
-            return -1;
+        dense_table table = this.reduce_dense;
+        if (table == null) {
+            /* null rows and rows without a default entry give the default (-1) */
+            table = this.reduce_dense = dense_table.get(this.reduce_tab, (short) -1);
         }
-
-        for (int probe = 0; probe < row.length; probe++)
-        {
-            /* is this entry labeled with our Symbol or the default? */
-            tag = row[probe++];
-            if (tag == sym || tag == -1)
-            {
-                /* return the next entry */
-                return row[probe];
-            }
-        }
-        /* if we run off the end we return the default (error == -1) */
-        return -1;
+        return table.lookup(state, sym);
     }
 
     /* . . . . . . . . . . . . . . . . . . . . . . . . . . . . . . */
@@ -554,10 +545,10 @@ else if (act < 0)
                 lhs_sym_num = this.production_tab[(-act) - 1][0];
                 handle_size = this.production_tab[(-act) - 1][1];
 
-                /* pop the handle off the stack */
+                /* pop the handle off the stack, making its Symbols available for reuse */
                 for (int i = 0; i < handle_size; i++)
                 {
-                    this.stack.pop();
+                    this.stack.pop_release();
                     this.tos--;
                 }
 
@@ -0,0 +1,181 @@
+package java_cup.runtime;
+
+import java.util.Stack;
+
+/**
+ * This class implements the parse stack used by lr_parser. It is a <code>java.util.Stack</code>, so it can be handed to
+ * generated action code and to virtual_parse_stack unchanged, but the operations used on every shift and reduce (push,
+ * pop, peek, elementAt and size) work directly on the underlying array without synchronization. A parse stack is only
+ * ever used by the thread running the parse.
+ * <p>
+ * The stack also keeps a pool of Symbol objects that the parser has released after popping them during a reduce. New
+ * Symbols for tokens and reductions can be obtained from the pool instead of being allocated, which keeps the
+ * allocation rate of a long parse low. Recycling can be turned off, in which case every request allocates a new
+ * Symbol.
+ * </p>
+ *
+ * @see java_cup.runtime.lr_parser
+ * @version $Id$
+ */
+public class symbol_stack extends Stack<Symbol>
+{
+    private static final long serialVersionUID = -2208765411836052394L;
+
+    /*-----------------------------------------------------------*/
+    /*--- Constructor(s) ----------------------------------------*/
+    /*-----------------------------------------------------------*/
+
+    /** Constructor for an empty stack that recycles Symbols. */
+    public symbol_stack()
+    {
+        super();
+    }
+
+    /*-----------------------------------------------------------*/
+    /*--- (Access to) Instance Variables ------------------------*/
+    /*-----------------------------------------------------------*/
+
+    /** Released Symbols available for reuse. */
+    private transient Symbol[] free = new Symbol[32];
+
+    /** Number of Symbols in the free pool. */
+    private transient int free_count = 0;
+
+    /** Whether released Symbols are kept for reuse. */
+    private transient boolean recycle = true;
+
+    /* . . . . . . . . . . . . . . . . . . . . . . . . . . . . . . */
+
+    /**
+     * Indicate whether Symbols released to this stack should be reused.
+     *
+     * @param recycle true to reuse released Symbols
+     */
+    public void set_recycling(boolean recycle)
+    {
+        this.recycle = recycle;
+        if (!recycle) {
+            clear_pool();
+        }
+    }
+
+    /** Indicate whether Symbols released to this stack are reused. */
+    public boolean is_recycling()
+    {
+        return this.recycle;
+    }
+
+    /** Drop all pooled Symbols. */
+    public void clear_pool()
+    {
+        for (int i = 0; i < this.free_count; i++) {
+            this.free[i] = null;
+        }
+        this.free_count = 0;
+    }
+
+    /*-----------------------------------------------------------*/
+    /*--- General Methods ---------------------------------------*/
+    /*-----------------------------------------------------------*/
+
+    /**
+     * Get a Symbol with the given contents, reusing a released one when possible.
+     *
+     * @param id the symbol number
+     * @param left the left position
+     * @param right the right position
+     * @param value the value of the Symbol
+     */
+    public Symbol obtain(int id, int left, int right, Object value)
+    {
+        if (this.free_count == 0) {
+            return new Symbol(id, left, right, value);
+        }
+        Symbol sym = this.free[--this.free_count];
+        this.free[this.free_count] = null;
+        sym.sym = id;
+        sym.parse_state = 0;
+        sym.left = left;
+        sym.right = right;
+        sym.value = value;
+        sym.used_by_parser = false;
+        return sym;
+    }
+
+    /* . . . . . . . . . . . . . . . . . . . . . . . . . . . . . . */
+
+    /**
+     * Pop the top of the stack and return the Symbol to the pool. The caller must not keep any reference to the
+     * popped Symbol.
+     */
+    public void pop_release()
+    {
+        Symbol sym = pop();
+        if (this.recycle) {
+            sym.value = null;
+            if (this.free_count == this.free.length) {
+                Symbol[] grown = new Symbol[this.free_count * 2];
+                System.arraycopy(this.free, 0, grown, 0, this.free_count);
+                this.free = grown;
+            }
+            this.free[this.free_count++] = sym;
+        }
+    }
+
+    /* . . . . . . . . . . . . . . . . . . . . . . . . . . . . . . */
+
+    @Override
+    public Symbol push(Symbol item)
+    {
+        if (this.elementCount == this.elementData.length) {
+            Object[] grown = new Object[Math.max(16, this.elementCount * 2)];
+            System.arraycopy(this.elementData, 0, grown, 0, this.elementCount);
+            this.elementData = grown;
+        }
+        this.modCount++;
+        this.elementData[this.elementCount++] = item;
+        return item;
+    }
+
+    @Override
+    public Symbol pop()
+    {
+        if (this.elementCount == 0) {
+            throw new java.util.EmptyStackException();
+        }
+        this.modCount++;
+        Symbol sym = (Symbol) this.elementData[--this.elementCount];
+        this.elementData[this.elementCount] = null;
+        return sym;
+    }
+
+    @Override
+    public Symbol peek()
+    {
+        if (this.elementCount == 0) {
+            throw new java.util.EmptyStackException();
+        }
+        return (Symbol) this.elementData[this.elementCount - 1];
+    }
+
+    @Override
+    public boolean empty()
+    {
+        return this.elementCount == 0;
+    }
+
+    @Override
+    public int size()
+    {
+        return this.elementCount;
+    }
+
+    @Override
+    public Symbol elementAt(int index)
+    {
+        if (index >= this.elementCount) {
+            throw new ArrayIndexOutOfBoundsException(index + " >= " + this.elementCount);
+        }
+        return (Symbol) this.elementData[index];
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Checks that the streaming parse mode describes a graph the same way as the regular parse. Each input is parsed into
+ * a <code>Graph</code>, read into a <code>CompactGraph</code> (through a parser listener) and turned back into a
+ * <code>Graph</code>, and applied by a <code>GraphUpdater</code> to an empty graph; the nodes and edges of the three
+ * graphs, with the subgraph each belongs to, are then compared.
+ *
+ * @version $Id$
+ */
+public class StreamingParseTest
+{
+    private static final String[] INPUTS = {
+        "digraph G { c; d; a -> {c d}; }",
+        "digraph G { x; {x y} -> z; subgraph cluster_1 { p; subgraph s2 { q; r; } } -> {p w}; m -> n -> {n o}; "
+            + "e:s -> f:n [label=hi, color=red]; }",
+        "graph H { node [shape=box]; a -- b; subgraph s { edge [color=blue]; b -- c; c -- {a d} } ; {d e} -- {e f} }",
+        "digraph G { graph [rankdir=LR]; node [shape=box]; edge [color=blue]; a -> b [label=\"x\"]; "
+            + "subgraph cluster0 { node [color=red]; edge [style=dashed]; c; d [label=\"D\"]; c:n -> d:s; "
+            + "subgraph inner { e -> a; } } a -> b [key=k2]; b -> c:w; }",
+        "digraph C { a [color=\"#ff0010\", fillcolor=\"#12345678\"]; b [fillcolor=\"red:#00ff01\"]; "
+            + "a -> b [color=\"#0000fe\"]; }"
+    };
+
+    @Test
+    public void compactGraphMatchesGraph() throws Exception
+    {
+        for (String input : INPUTS) {
+            Graph compact = CompactGraph.parse(new StringReader(input), null).toGraph();
+            Assert.assertEquals(input, describe(parse(input), true), describe(compact, true));
+        }
+    }
+
+    @Test
+    public void updaterMatchesGraph() throws Exception
+    {
+        for (String input : INPUTS) {
+            Graph parsed = parse(input);
+            Graph updated = new Graph(parsed.getName(), parsed.isDirected(), parsed.isStrict());
+            GraphUpdater.update(updated, new StringReader(input), null);
+            // the updater leaves out values equal to the defaults in effect, so only compare the structure
+            Assert.assertEquals(input, describe(parsed, false), describe(updated, false));
+        }
+    }
+
+    @Test
+    public void subgraphEndWithoutMembershipTracking() throws Exception
+    {
+        String input = "digraph G { x; {x y} -> z; }";
+        Assert.assertEquals(Collections.singletonList("y->z"), streamEdges(input, true));
+        Assert.assertEquals(Arrays.asList("x->z", "y->z"), streamEdges(input, false));
+    }
+
+    private static Graph parse(String input) throws Exception
+    {
+        Parser parser = new Parser(new StringReader(input), null, null);
+        parser.parse();
+        return parser.getGraph();
+    }
+
+    private static List<String> streamEdges(String input, boolean track) throws Exception
+    {
+        final List<String> edges = new ArrayList<>();
+        Parser parser = new Parser(new StringReader(input), null, null);
+        parser.setTrackNodeMembership(track);
+        parser.setListener(new GraphParserListener()
+        {
+            @Override
+            public void startGraph(String name, boolean directed, boolean strict)
+            {
+            }
+
+            @Override
+            public void endGraph(String name)
+            {
+            }
+
+            @Override
+            public void startSubgraph(String name, String parent)
+            {
+            }
+
+            @Override
+            public void endSubgraph(String name)
+            {
+            }
+
+            @Override
+            public void defaultAttributes(String subgraph, int elementType, Attribute[] attrs)
+            {
+            }
+
+            @Override
+            public void node(String subgraph, String name, Attribute[] attrs)
+            {
+            }
+
+            @Override
+            public void edge(String subgraph, String tail, String tailPort, String head, String headPort,
+                Attribute[] attrs)
+            {
+                edges.add(tail + "->" + head);
+            }
+        });
+        parser.parse();
+        return edges;
+    }
+
+    // the nodes and edges of a graph, one per line, in sorted order
+    private static List<String> describe(Graph graph, boolean attributes)
+    {
+        List<String> lines = new ArrayList<>();
+        GraphEnumeration enm = graph.elements(GrappaConstants.NODE | GrappaConstants.EDGE);
+        while (enm.hasMoreElements()) {
+            Element elem = enm.nextGraphElement();
+            StringBuilder line = new StringBuilder();
+            line.append(elem.getSubgraph().getName()).append(": ");
+            if (elem.isNode()) {
+                line.append("node ").append(elem.getName());
+            } else {
+                Edge edge = (Edge) elem;
+                line.append("edge ").append(end(edge.getTail(), edge.getTailPortId())).append(" -> ")
+                    .append(end(edge.getHead(), edge.getHeadPortId()));
+            }
+            if (attributes) {
+                List<String> pairs = new ArrayList<>();
+                Enumeration<String> keys = elem.getLocalAttributeKeys();
+                while (keys.hasMoreElements()) {
+                    String key = keys.nextElement();
+                    pairs.add(key + "=" + elem.getLocalAttribute(key).getStringValue());
+                }
+                Collections.sort(pairs);
+                line.append(' ').append(pairs);
+            }
+            lines.add(line.toString());
+        }
+        Collections.sort(lines);
+        return lines;
+    }
+
+    private static String end(Node node, String port)
+    {
+        return (port == null) ? node.getName() : node.getName() + ":" + port;
+    }
+}
@@ -0,0 +1,123 @@
+package att.grappa.util;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+import att.grappa.Graph;
+import att.grappa.Node;
+
+/**
+ * Simple command line benchmark comparing the garbage collection cost of a large graph whose node positions and sizes
+ * are kept on the heap with that of the same graph keeping them off-heap. Usage, after <code>mvn test-compile</code>:
+ * <code>java -cp target/classes:target/test-classes att.grappa.util.AttributeStorageBenchmark [nodes] [collections]
+ * [on-heap|off-heap]</code>. For each storage mode (or only the one given, which is best done in a JVM of its own so
+ * that one mode does not leave garbage or a grown heap to the other), a synthetic graph with <code>pos</code>,
+ * <code>width</code> and <code>height</code> set on every node is built, every value is read back once (as drawing
+ * would), and then full collections are requested while the graph is live; the time the collectors report for those
+ * collections and the heap in use afterwards are printed.
+ *
+ * @version $Id$
+ */
+public class AttributeStorageBenchmark
+{
+    private final int nodes;
+
+    private final int collections;
+
+    /**
+     * Create a benchmark for graphs of the given size.
+     *
+     * @param nodes the number of nodes in the graph
+     * @param collections the number of full collections to measure
+     */
+    public AttributeStorageBenchmark(int nodes, int collections)
+    {
+        this.nodes = nodes;
+        this.collections = collections;
+    }
+
+    /**
+     * Build the synthetic graph.
+     *
+     * @param offHeap whether numeric attributes are stored off-heap
+     * @return the graph
+     */
+    public Graph build(boolean offHeap)
+    {
+        Graph graph = new Graph("G");
+        graph.setOffHeapAttributes(offHeap);
+        for (int i = 0; i < this.nodes; i++) {
+            Node node = new Node(graph, "n" + i);
+            node.setAttribute(Graph.POS_ATTR, (i % 1000) * 72 + "," + (i / 1000) * 72);
+            node.setAttribute(Graph.WIDTH_ATTR, "0.75");
+            node.setAttribute(Graph.HEIGHT_ATTR, "0.5");
+            // read the values once, as drawing would
+            node.getAttributeValue(Graph.POS_ATTR);
+            node.getAttributeValue(Graph.WIDTH_ATTR);
+            node.getAttributeValue(Graph.HEIGHT_ATTR);
+        }
+        return graph;
+    }
+
+    /**
+     * Build the graph in the given mode and measure full collections while it is live.
+     */
+    private void measure(String label, boolean offHeap)
+    {
+        long start = System.nanoTime();
+        Graph graph = build(offHeap);
+        long built = System.nanoTime() - start;
+        collect(1);
+        long gcTime = gcTime();
+        long gcCount = gcCount();
+        collect(this.collections);
+        gcTime = gcTime() - gcTime;
+        gcCount = gcCount() - gcCount;
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long used = memory.getHeapMemoryUsage().getUsed();
+        System.out.println(String.format("%-10s %8d nodes %10.1f ms build %6d GCs %10.1f ms GC %10.1f MB heap",
+            label, graph.countOfElements(Graph.NODE), built / 1e6, gcCount, (double) gcTime,
+            used / (1024.0 * 1024.0)));
+    }
+
+    private static void collect(int count)
+    {
+        for (int i = 0; i < count; i++) {
+            System.gc();
+        }
+    }
+
+    private static long gcTime()
+    {
+        long time = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += Math.max(0, bean.getCollectionTime());
+        }
+        return time;
+    }
+
+    private static long gcCount()
+    {
+        long count = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, bean.getCollectionCount());
+        }
+        return count;
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        int nodes = (args.length > 0) ? Integer.parseInt(args[0]) : 2000000;
+        int collections = (args.length > 1) ? Integer.parseInt(args[1]) : 5;
+        AttributeStorageBenchmark bench = new AttributeStorageBenchmark(nodes, collections);
+
+        String mode = (args.length > 2) ? args[2] : null;
+        if (mode == null || mode.equals("on-heap")) {
+            bench.measure("on-heap", false);
+        }
+        if (mode == null || mode.equals("off-heap")) {
+            bench.measure("off-heap", true);
+        }
+    }
+}
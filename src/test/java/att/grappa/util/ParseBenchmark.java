@@ -0,0 +1,184 @@
+package att.grappa.util;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import att.grappa.Lexer;
+import att.grappa.Parser;
+import att.grappa.Symbols;
+
+/**
+ * Simple command line benchmark measuring the throughput of the <i>dot</i> lexer and parser on a given input file.
+ * Usage, after <code>mvn test-compile</code>:
+ * <code>java -cp target/classes:target/test-classes att.grappa.util.ParseBenchmark file.dot [iterations]</code>. The
+ * file is read into memory once so that only lexing and parsing are timed, except for the memory-mapped parse which
+ * reads the file each time. Where the JVM supports it, the number of bytes allocated per iteration is reported as
+ * well.
+ *
+ * @version $Id$
+ */
+public class ParseBenchmark
+{
+    private final Path path;
+
+    private final String input;
+
+    private final int iterations;
+
+    /**
+     * Create a benchmark for the given input file.
+     *
+     * @param path the <i>dot</i> file to parse
+     * @param iterations the number of times each measurement is repeated
+     * @exception IOException if the file cannot be read
+     */
+    public ParseBenchmark(Path path, int iterations) throws IOException
+    {
+        this.path = path;
+        this.input = new String(Files.readAllBytes(path), Charset.defaultCharset());
+        this.iterations = iterations;
+    }
+
+    /**
+     * Tokenize the input once.
+     *
+     * @param buffered whether to use the buffered lexer mode
+     * @return the number of tokens read
+     * @exception IOException if the lexer does
+     */
+    public int lex(boolean buffered) throws IOException
+    {
+        Lexer lexer = new Lexer(new StringReader(this.input), null, buffered);
+        lexer.init();
+        int count = 0;
+        while (lexer.next_token(0).sym != Symbols.EOF) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Parse the input once into a graph.
+     *
+     * @param buffered whether to use the buffered lexer mode
+     * @param recycle whether the parser reuses Symbols
+     * @exception Exception if the parser does
+     */
+    public void parse(boolean buffered, boolean recycle) throws Exception
+    {
+        Parser parser = new Parser(new StringReader(this.input), null, null, buffered);
+        parser.set_symbol_recycling(recycle);
+        parser.parse();
+    }
+
+    /**
+     * Parse the input file once through a memory-mapped channel.
+     *
+     * @exception Exception if the parser does
+     */
+    public void parseMapped() throws Exception
+    {
+        Parser.parseFile(this.path, Charset.defaultCharset(), null, null);
+    }
+
+    /**
+     * Time the given task over the configured number of iterations, after a warm-up of the same length, and print the
+     * resulting throughput.
+     */
+    private void time(String label, int task) throws Exception
+    {
+        for (int i = 0; i < this.iterations; i++) {
+            run(task);
+        }
+        long allocated = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < this.iterations; i++) {
+            run(task);
+        }
+        long elapsed = System.nanoTime() - start;
+        if (allocated >= 0) {
+            allocated = allocatedBytes() - allocated;
+        }
+        double seconds = elapsed / 1e9;
+        double mbytes = ((double) this.input.length() * this.iterations) / (1024 * 1024);
+        String line = String.format("%-32s %10.1f ms/iter %10.2f MB/s", label, (elapsed / 1e6)
+            / this.iterations, mbytes / seconds);
+        if (allocated >= 0) {
+            line += String.format(" %10.1f MB allocated/iter", allocated / (1024.0 * 1024.0) / this.iterations);
+        }
+        System.out.println(line);
+    }
+
+    /**
+     * Get the number of bytes allocated so far by the current thread, or -1 if the JVM cannot tell.
+     */
+    private static long allocatedBytes()
+    {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private static final int LEX = 0;
+
+    private static final int LEX_BUFFERED = 1;
+
+    private static final int PARSE = 2;
+
+    private static final int PARSE_BUFFERED = 3;
+
+    private static final int PARSE_MAPPED = 4;
+
+    private static final int PARSE_NO_RECYCLING = 5;
+
+    private void run(int task) throws Exception
+    {
+        switch (task) {
+            case LEX:
+                lex(false);
+                break;
+            case LEX_BUFFERED:
+                lex(true);
+                break;
+            case PARSE:
+                parse(false, true);
+                break;
+            case PARSE_BUFFERED:
+                parse(true, true);
+                break;
+            case PARSE_NO_RECYCLING:
+                parse(true, false);
+                break;
+            case PARSE_MAPPED:
+                parseMapped();
+                break;
+            default:
+                throw new IllegalArgumentException("unknown task (" + task + ")");
+        }
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        if (args.length < 1) {
+            System.err.println("Usage: java " + ParseBenchmark.class.getName() + " file.dot [iterations]");
+            System.exit(1);
+        }
+        int iterations = (args.length > 1) ? Integer.parseInt(args[1]) : 5;
+        ParseBenchmark bench = new ParseBenchmark(Paths.get(args[0]), iterations);
+
+        bench.time("lex (unbuffered)", LEX);
+        bench.time("lex (buffered)", LEX_BUFFERED);
+        bench.time("parse (unbuffered)", PARSE);
+        bench.time("parse (buffered)", PARSE_BUFFERED);
+        bench.time("parse (buffered, no recycling)", PARSE_NO_RECYCLING);
+        bench.time("parse (mapped)", PARSE_MAPPED);
+    }
+}